@@ -0,0 +1,76 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+/**
+ * The texts processed by the benchmarks, from no icon at all to
+ * thousands of icons and pathological unterminated tokens.
+ * <p/>
+ * <pre>
+ *     mvn package -pl android-iconify-benchmarks -am
+ *     java -jar android-iconify-benchmarks/target/benchmarks.jar -prof gc
+ * </pre>
+ * The gc profiler reports the bytes allocated per operation
+ * (gc.alloc.rate.norm) next to the operations per second.
+ */
+public enum BenchmarkInput {
+
+    /** A long text without any brace. */
+    NONE {
+        @Override
+        String text() {
+            return repeat("Lorem ipsum dolor sit amet ", 40);
+        }
+    },
+
+    /** A short label with one icon, the most common case. */
+    ONE {
+        @Override
+        String text() {
+            return "{fa-star} Rated by 42 users";
+        }
+    },
+
+    /** Thousands of icons, mixing the dash and underscore forms. */
+    THOUSANDS {
+        @Override
+        String text() {
+            return repeat("A {fa-adjust} B {fa_arrow_circle_o_down} ", 1000);
+        }
+    },
+
+    /** Thousands of tokens that are never closed. */
+    UNTERMINATED {
+        @Override
+        String text() {
+            return repeat("{fa-adjust {", 1000);
+        }
+    };
+
+    abstract String text();
+
+    private static String repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder(text.length() * count);
+        for (int i = 0; i < count; i++)
+            builder.append(text);
+        return builder.toString();
+    }
+}
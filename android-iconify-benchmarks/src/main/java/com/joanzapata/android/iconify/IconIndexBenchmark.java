@@ -0,0 +1,82 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Icon name resolution, from a token in the middle of a text,
+ * as done by the tokenizer for each icon.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IconIndexBenchmark {
+
+    private static final String TEXT = "A {fa-arrow-circle-o-down} {fa_adjust} {fa-unknown-icon} {xx-other}";
+
+    private IconFontRegistry registry;
+
+    @Setup
+    public void setUp() {
+        registry = IconFontRegistry.get();
+    }
+
+    @Benchmark
+    public Icon hitWithDash() {
+        return resolve(3, 25);
+    }
+
+    @Benchmark
+    public Icon hitWithUnderscore() {
+        return resolve(28, 37);
+    }
+
+    @Benchmark
+    public Icon missKnownPrefix() {
+        IconFont font = registry.fontOf(TEXT, 40, 55);
+        return font.get(TEXT, 40, 55);
+    }
+
+    @Benchmark
+    public IconFont missUnknownPrefix() {
+        return registry.fontOf(TEXT, 58, 66);
+    }
+
+    private Icon resolve(int start, int end) {
+        return registry.fontOf(TEXT, start, end).get(TEXT, start, end);
+    }
+
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The metrics of the glyphs of a TrueType font, read once from its head,
+ * hhea, maxp, hmtx, loca, glyf and cmap tables, so that icons are laid out
+ * without measuring text. Values are in font units, see {@link #unitsPerEm()}.
+ * Immutable, and safe to use from any thread.
+ */
+final class GlyphMetrics {
+
+    private static final int PLATFORM_UNICODE = 0;
+    private static final int PLATFORM_WINDOWS = 3;
+
+    private final int unitsPerEm;
+
+    private final int ascender;
+
+    private final int descender;
+
+    /** The format 4 cmap segments, each one as end, start, delta and glyph of its range offset. */
+    private final char[] endCodes;
+    private final char[] startCodes;
+    private final short[] idDeltas;
+    private final char[] idRangeOffsets;
+
+    /** The glyph ids referenced by the segments with a range offset. */
+    private final char[] glyphIds;
+
+    /** Position of glyphIds relative to the first idRangeOffset, in bytes. */
+    private final int glyphIdsOffset;
+
+    private final char[] advances;
+
+    /** The bounding box of each glyph, xMin, yMin, xMax and yMax. */
+    private final short[] boxes;
+
+    private GlyphMetrics(ByteBuffer font) throws IOException {
+        int head = table(font, "head");
+        int hhea = table(font, "hhea");
+        int maxp = table(font, "maxp");
+        int hmtx = table(font, "hmtx");
+        int loca = table(font, "loca");
+        int glyf = table(font, "glyf");
+        int cmap = table(font, "cmap");
+
+        unitsPerEm = font.getShort(head + 18) & 0xffff;
+        boolean shortLoca = font.getShort(head + 50) == 0;
+        ascender = font.getShort(hhea + 4);
+        descender = font.getShort(hhea + 6);
+        int numberOfHMetrics = font.getShort(hhea + 34) & 0xffff;
+        int numGlyphs = font.getShort(maxp + 4) & 0xffff;
+        if (unitsPerEm == 0 || numberOfHMetrics == 0) throw new IOException("Invalid font");
+
+        advances = new char[numGlyphs];
+        boxes = new short[numGlyphs * 4];
+        for (int glyph = 0; glyph < numGlyphs; glyph++) {
+            // The last advance applies to the glyphs after it
+            advances[glyph] = font.getChar(hmtx + 4 * Math.min(glyph, numberOfHMetrics - 1));
+            int offset = shortLoca ? 2 * font.getChar(loca + 2 * glyph) : font.getInt(loca + 4 * glyph);
+            int next = shortLoca ? 2 * font.getChar(loca + 2 * glyph + 2) : font.getInt(loca + 4 * glyph + 4);
+            if (next > offset) {
+                for (int i = 0; i < 4; i++)
+                    boxes[4 * glyph + i] = font.getShort(glyf + offset + 2 + 2 * i);
+            }
+        }
+
+        int subtable = -1;
+        int numTables = font.getShort(cmap + 2) & 0xffff;
+        for (int i = 0; i < numTables && subtable == -1; i++) {
+            int record = cmap + 4 + 8 * i;
+            int platform = font.getShort(record) & 0xffff;
+            int encoding = font.getShort(record + 2) & 0xffff;
+            int offset = cmap + font.getInt(record + 4);
+            boolean unicode = platform == PLATFORM_UNICODE || platform == PLATFORM_WINDOWS && encoding == 1;
+            if (unicode && font.getShort(offset) == 4) subtable = offset;
+        }
+        if (subtable == -1) throw new IOException("No unicode cmap subtable in format 4");
+
+        int segCount = font.getChar(subtable + 6) / 2;
+        int length = font.getChar(subtable + 2);
+        endCodes = new char[segCount];
+        startCodes = new char[segCount];
+        idDeltas = new short[segCount];
+        idRangeOffsets = new char[segCount];
+        int ends = subtable + 14;
+        int starts = ends + 2 * segCount + 2;
+        int deltas = starts + 2 * segCount;
+        int rangeOffsets = deltas + 2 * segCount;
+        for (int i = 0; i < segCount; i++) {
+            endCodes[i] = font.getChar(ends + 2 * i);
+            startCodes[i] = font.getChar(starts + 2 * i);
+            idDeltas[i] = font.getShort(deltas + 2 * i);
+            idRangeOffsets[i] = font.getChar(rangeOffsets + 2 * i);
+        }
+        glyphIdsOffset = 2 * segCount;
+        int glyphIdsStart = rangeOffsets + glyphIdsOffset;
+        glyphIds = new char[Math.max(0, (subtable + length - glyphIdsStart) / 2)];
+        for (int i = 0; i < glyphIds.length; i++)
+            glyphIds[i] = font.getChar(glyphIdsStart + 2 * i);
+    }
+
+    /** Read the metrics of the given TTF file, mapped in memory while it's read. */
+    static GlyphMetrics read(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            return new GlyphMetrics(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /** Read the metrics of the given TTF content. */
+    static GlyphMetrics read(byte[] font) throws IOException {
+        return new GlyphMetrics(ByteBuffer.wrap(font));
+    }
+
+    private static int table(ByteBuffer font, String tag) throws IOException {
+        int numTables = font.getShort(4) & 0xffff;
+        for (int i = 0; i < numTables; i++) {
+            int record = 12 + 16 * i;
+            if (font.get(record) == tag.charAt(0) && font.get(record + 1) == tag.charAt(1)
+                    && font.get(record + 2) == tag.charAt(2) && font.get(record + 3) == tag.charAt(3)) {
+                int offset = font.getInt(record + 8);
+                if (offset < 0 || offset >= font.limit()) throw new IOException("Truncated table " + tag);
+                return offset;
+            }
+        }
+        throw new IOException("Missing table " + tag);
+    }
+
+    int unitsPerEm() {
+        return unitsPerEm;
+    }
+
+    /** @return The distance from the baseline to the top of the lines, positive. */
+    int ascender() {
+        return ascender;
+    }
+
+    /** @return The distance from the baseline to the bottom of the lines, negative. */
+    int descender() {
+        return descender;
+    }
+
+    /** @return The glyph of the given character, 0 (.notdef) if it's not in the font. */
+    int glyph(char c) {
+        int low = 0;
+        int high = endCodes.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (endCodes[middle] < c) low = middle + 1;
+            else high = middle;
+        }
+        if (low >= endCodes.length || startCodes[low] > c || endCodes[low] < c) return 0;
+        if (idRangeOffsets[low] == 0) return (c + idDeltas[low]) & 0xffff;
+        // The range offset is relative to its own position in idRangeOffsets
+        int index = (idRangeOffsets[low] + 2 * (c - startCodes[low]) - glyphIdsOffset) / 2 + low;
+        if (index < 0 || index >= glyphIds.length || glyphIds[index] == 0) return 0;
+        return (glyphIds[index] + idDeltas[low]) & 0xffff;
+    }
+
+    /** @return The advance width of the glyph of the given character. */
+    int advance(char c) {
+        int glyph = glyph(c);
+        return glyph < advances.length ? advances[glyph] : 0;
+    }
+
+    /**
+     * Get the bounding box of the glyph of the given character, y up.
+     * @param box Filled with xMin, yMin, xMax and yMax, all 0 for an empty glyph.
+     * @return false if the character is not in the font.
+     */
+    boolean boundingBox(char c, int[] box) {
+        int glyph = glyph(c);
+        if (glyph == 0 || glyph >= advances.length) return false;
+        for (int i = 0; i < 4; i++) box[i] = boxes[4 * glyph + i];
+        return true;
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+/**
+ * Describes an icon font, so that it can be registered with
+ * Iconify.with(IconFontDescriptor).
+ * <p/>
+ * <pre>
+ *     Iconify.with(new MyFontDescriptor());
+ *     textView.setText("{my-icon}");
+ * </pre>
+ * Nothing is loaded when the font is registered, its icons are
+ * indexed and its typeface is loaded the first time it's used.
+ */
+public interface IconFontDescriptor {
+
+    /**
+     * The prefix of the icon keys, such as "fa" for {fa-adjust}.
+     * It can't contain '-' or '_'.
+     */
+    String prefix();
+
+    /** The name of the TTF file, as a classpath resource. */
+    String ttfFileName();
+
+    /** The CRC32 of the TTF file, checked when it's extracted. */
+    long ttfChecksum();
+
+    /** All the icons of this font. */
+    Icon[] characters();
+
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+/**
+ * The icons of a font, from the table generated at build time, resolving
+ * names without Android, for instance with {@link IconTokenizer}.
+ * Immutable, and safe to use from any thread.
+ */
+public final class IconFontTable implements IconTokenizer.Resolver {
+
+    private final IconIndex<Icon> index;
+
+    IconFontTable(String[] names, char[] characters, int[] slots) {
+        Icon[] icons = new Icon[names.length];
+        for (int i = 0; i < names.length; i++)
+            icons[i] = new TableIcon(names[i], characters[i]);
+        index = new IconIndex<Icon>(names, icons, slots);
+    }
+
+    /** @return The FontAwesome icons, such as fa-adjust. */
+    public static IconFontTable fontAwesome() {
+        return FontAwesomeHolder.TABLE;
+    }
+
+    @Override
+    public Icon resolve(CharSequence text, int start, int end) {
+        return index.get(text, start, end);
+    }
+
+    /** @return The number of icons of the font. */
+    public int size() {
+        return index.size();
+    }
+
+    /** Built on first use only. */
+    private static final class FontAwesomeHolder {
+        static final IconFontTable TABLE =
+                new IconFontTable(FontAwesomeTable.NAMES, FontAwesomeTable.CHARACTERS, FontAwesomeTable.SLOTS);
+    }
+
+    private static final class TableIcon implements Icon {
+
+        private final String key;
+
+        private final char character;
+
+        TableIcon(String key, char character) {
+            this.key = key;
+            this.character = character;
+        }
+
+        @Override
+        public String key() {
+            return key;
+        }
+
+        @Override
+        public char character() {
+            return character;
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+    }
+}
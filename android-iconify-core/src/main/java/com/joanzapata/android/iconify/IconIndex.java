@@ -0,0 +1,126 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+/**
+ * Immutable open-addressing hash table resolving names to values
+ * directly from a range of a CharSequence, without creating any String.
+ * '-' and '_' are considered the same character, so both fa-adjust
+ * and fa_adjust resolve to the same value.
+ * @param <T> The type of the indexed values.
+ */
+final class IconIndex<T> {
+
+    private final String[] names;
+
+    private final T[] values;
+
+    /** Position + 1 of the name in {@link #names}, 0 for an empty slot. */
+    private final int[] slots;
+
+    private final int mask;
+
+    /**
+     * Create an index of the given values.
+     * @param names  The names of the values, no two of them may only differ by '-' and '_'.
+     * @param values The values, in the same order as the names.
+     */
+    IconIndex(String[] names, T[] values) {
+        if (names.length != values.length)
+            throw new IllegalArgumentException("Expected as many names as values");
+        this.names = names;
+        this.values = values;
+
+        int capacity = Integer.highestOneBit(Math.max(names.length, 1) * 2) * 2;
+        slots = new int[capacity];
+        mask = capacity - 1;
+        for (int n = 0; n < names.length; n++) {
+            String name = names[n];
+            if (get(name, 0, name.length()) != null)
+                throw new IllegalArgumentException("Duplicate name: " + name);
+            int i = hash(name, 0, name.length()) & mask;
+            while (slots[i] != 0) i = (i + 1) & mask;
+            slots[i] = n + 1;
+        }
+    }
+
+    /**
+     * Create an index from slots computed beforehand, typically at build
+     * time, exactly as {@link #IconIndex(String[], Object[])} would.
+     */
+    IconIndex(String[] names, T[] values, int[] slots) {
+        if (names.length != values.length)
+            throw new IllegalArgumentException("Expected as many names as values");
+        if (Integer.bitCount(slots.length) != 1 || slots.length <= names.length)
+            throw new IllegalArgumentException("Invalid slots");
+        this.names = names;
+        this.values = values;
+        this.slots = slots;
+        this.mask = slots.length - 1;
+    }
+
+    /** Create an index of the given enum constants, by name. */
+    static <E extends Enum<E>> IconIndex<E> of(E[] values) {
+        String[] names = new String[values.length];
+        for (int i = 0; i < values.length; i++)
+            names[i] = values[i].name();
+        return new IconIndex<E>(names, values);
+    }
+
+    /**
+     * Resolve a name.
+     * @param text  The text containing the name.
+     * @param start The start of the name in the text, inclusive.
+     * @param end   The end of the name in the text, exclusive.
+     * @return The value with this name, or null if there's none.
+     */
+    T get(CharSequence text, int start, int end) {
+        for (int i = hash(text, start, end) & mask; ; i = (i + 1) & mask) {
+            int slot = slots[i];
+            if (slot == 0) return null;
+            if (matches(names[slot - 1], text, start, end)) return values[slot - 1];
+        }
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    private static boolean matches(String name, CharSequence text, int start, int end) {
+        if (name.length() != end - start) return false;
+        for (int i = 0; i < name.length(); i++)
+            if (normalize(name.charAt(i)) != normalize(text.charAt(start + i)))
+                return false;
+        return true;
+    }
+
+    /** Keep in sync with the hash of the generated tables, see IconTable. */
+    private static int hash(CharSequence text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++)
+            h = 31 * h + normalize(text.charAt(i));
+        return h ^ (h >>> 16);
+    }
+
+    private static char normalize(char c) {
+        return c == '-' ? '_' : c;
+    }
+}
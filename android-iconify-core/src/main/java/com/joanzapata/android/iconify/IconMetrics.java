@@ -0,0 +1,58 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+/**
+ * Receives the metrics of Iconify once installed with
+ * Iconify.setMetrics(IconMetrics), for instance to report them
+ * in production. Nothing is measured while no metrics are installed.
+ * <p/>
+ * Callbacks come from any thread, including the UI thread, so they must
+ * be thread-safe and return quickly. {@link IconMetricsRecorder} keeps
+ * counters and latency histograms of them.
+ */
+public interface IconMetrics {
+
+    /**
+     * A text was computed, by Iconify.compute(CharSequence) or a widget.
+     * @param length The length of the text.
+     * @param nanos  The time it took, cache lookup included.
+     */
+    void onCompute(int length, long nanos);
+
+    /** Icon tokens of a text were resolved and replaced. */
+    void onIconsResolved(int count);
+
+    /** A token has the prefix of a registered font, but no icon has its name. */
+    void onUnknownIcon(String name);
+
+    /**
+     * A typeface was loaded.
+     * @param nanos The time it took, extraction of the font included.
+     */
+    void onTypefaceLoaded(String ttfFile, long nanos);
+
+    /**
+     * An IconDrawable was drawn.
+     * @param cached True if a bitmap of IconRenderCache was drawn.
+     */
+    void onDraw(Icon icon, boolean cached);
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Metrics keeping counters and latency histograms, to be read and
+ * reported periodically.
+ * <p/>
+ * <pre>
+ *     IconMetricsRecorder recorder = new IconMetricsRecorder();
+ *     Iconify.setMetrics(recorder);
+ *     ...
+ *     Log.i(TAG, recorder.toString());
+ * </pre>
+ * At most {@link #MAX_UNKNOWN_ICONS} distinct unknown names are counted,
+ * the others are only counted in total.
+ */
+public final class IconMetricsRecorder implements IconMetrics {
+
+    public static final int MAX_UNKNOWN_ICONS = 100;
+
+    private final Histogram computeLatency = new Histogram();
+
+    private final Histogram typefaceLoadLatency = new Histogram();
+
+    private final AtomicLong iconsResolved = new AtomicLong();
+
+    private final AtomicLong unknownIconCount = new AtomicLong();
+
+    private final ConcurrentMap<String, AtomicInteger> unknownIcons = new ConcurrentHashMap<String, AtomicInteger>();
+
+    private final AtomicLong drawCount = new AtomicLong();
+
+    private final AtomicLong cachedDrawCount = new AtomicLong();
+
+    @Override
+    public void onCompute(int length, long nanos) {
+        computeLatency.record(nanos);
+    }
+
+    @Override
+    public void onIconsResolved(int count) {
+        iconsResolved.addAndGet(count);
+    }
+
+    @Override
+    public void onUnknownIcon(String name) {
+        unknownIconCount.incrementAndGet();
+        AtomicInteger count = unknownIcons.get(name);
+        if (count == null && unknownIcons.size() < MAX_UNKNOWN_ICONS) {
+            AtomicInteger existing = unknownIcons.putIfAbsent(name, count = new AtomicInteger());
+            if (existing != null) count = existing;
+        }
+        if (count != null) count.incrementAndGet();
+    }
+
+    @Override
+    public void onTypefaceLoaded(String ttfFile, long nanos) {
+        typefaceLoadLatency.record(nanos);
+    }
+
+    @Override
+    public void onDraw(Icon icon, boolean cached) {
+        drawCount.incrementAndGet();
+        if (cached) cachedDrawCount.incrementAndGet();
+    }
+
+    /** @return The latencies of the computed texts. */
+    public Histogram computeLatency() {
+        return computeLatency;
+    }
+
+    /** @return The latencies of the typeface loads. */
+    public Histogram typefaceLoadLatency() {
+        return typefaceLoadLatency;
+    }
+
+    /** @return The number of icon tokens resolved. */
+    public long iconsResolved() {
+        return iconsResolved.get();
+    }
+
+    /** @return The number of tokens with an unknown name. */
+    public long unknownIconCount() {
+        return unknownIconCount.get();
+    }
+
+    /** @return A copy of the number of occurrences of each unknown name. */
+    public Map<String, Integer> unknownIcons() {
+        Map<String, Integer> result = new HashMap<String, Integer>();
+        for (Map.Entry<String, AtomicInteger> entry : unknownIcons.entrySet())
+            result.put(entry.getKey(), entry.getValue().get());
+        return result;
+    }
+
+    /** @return The number of IconDrawables drawn. */
+    public long drawCount() {
+        return drawCount.get();
+    }
+
+    /** @return The number of IconDrawables drawn from a cached bitmap. */
+    public long cachedDrawCount() {
+        return cachedDrawCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "IconMetricsRecorder{compute=" + computeLatency
+                + ", typefaceLoad=" + typefaceLoadLatency
+                + ", iconsResolved=" + iconsResolved
+                + ", unknownIcons=" + unknownIcons()
+                + ", draws=" + drawCount
+                + ", cachedDraws=" + cachedDrawCount
+                + '}';
+    }
+
+    /**
+     * Lock-free histogram of latencies, in power of two buckets:
+     * bucket n counts the latencies from 2^n to 2^(n+1) - 1 nanoseconds.
+     */
+    public static final class Histogram {
+
+        private static final int BUCKETS = 64;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicLong totalNanos = new AtomicLong();
+
+        void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            buckets.incrementAndGet(BUCKETS - 1 - Long.numberOfLeadingZeros(nanos | 1));
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+        }
+
+        /** @return The number of recorded latencies. */
+        public long count() {
+            return count.get();
+        }
+
+        /** @return The sum of the recorded latencies, in nanoseconds. */
+        public long totalNanos() {
+            return totalNanos.get();
+        }
+
+        /** @return The number of latencies from 2^bucket to 2^(bucket+1) - 1 nanoseconds. */
+        public long bucketCount(int bucket) {
+            return buckets.get(bucket);
+        }
+
+        /**
+         * @param percentile From 0 to 100.
+         * @return An upper bound of the given percentile, in nanoseconds, 0 if nothing was recorded.
+         */
+        public long percentileNanos(double percentile) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) total += buckets.get(i);
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank && seen > 0) return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "{count=" + count + ", p50<=" + percentileNanos(50) + "ns, p99<=" + percentileNanos(99) + "ns}";
+        }
+    }
+}
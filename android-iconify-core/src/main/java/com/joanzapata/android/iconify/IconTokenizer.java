@@ -0,0 +1,129 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+/**
+ * Finds the {prefix-name} tokens of texts and replaces them with the
+ * characters of their icons. It has no Android dependency, so texts can
+ * be prepared on a server with the same syntax as in the app:
+ * <p/>
+ * <pre>
+ *     String text = IconTokenizer.replaceIcons(new StringBuilder(raw), IconFontTable.fontAwesome(), null).toString();
+ * </pre>
+ */
+public final class IconTokenizer {
+
+    /** Resolves the names of tokens to icons. */
+    public interface Resolver {
+
+        /**
+         * Resolve the name of a token, between its braces.
+         * @param text  The text containing the name.
+         * @param start The start of the name in the text, inclusive.
+         * @param end   The end of the name in the text, exclusive.
+         * @return The icon with this name, or null to keep the token as it is.
+         */
+        Icon resolve(CharSequence text, int start, int end);
+    }
+
+    private IconTokenizer() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Replace the tokens of the given text with their icon character.
+     * The text is scanned once and the result is written into a single buffer,
+     * unresolved names and unterminated tokens are kept as they are.
+     * @param text    The text to process, not modified.
+     * @param metrics Notified of the number of replaced tokens, may be null.
+     * @return The given text if it contains no token, a new builder otherwise.
+     */
+    public static StringBuilder replaceIcons(StringBuilder text, Resolver resolver, IconMetrics metrics) {
+        int length = text.length();
+        StringBuilder out = null;
+        int copied = 0;
+        int resolved = 0;
+        int i = 0;
+        while (i < length) {
+            if (!isTokenStart(text, i, length)) {
+                i++;
+                continue;
+            }
+
+            int end = tokenEnd(text, i, length);
+            if (end < 0) {
+                // Unterminated, resume on the '{' or the end that stopped the token
+                i = ~end;
+                continue;
+            }
+
+            Icon icon = resolver.resolve(text, i + 1, end);
+            if (icon != null) {
+                if (out == null) out = new StringBuilder(length);
+                out.append(text, copied, i).append(icon.character());
+                copied = end + 1;
+                resolved++;
+            }
+            i = end + 1;
+        }
+
+        if (resolved > 0 && metrics != null) metrics.onIconsResolved(resolved);
+        if (out == null) return text;
+        return out.append(text, copied, length);
+    }
+
+    /**
+     * Quick check for a '{' followed by a '}', without resolving anything.
+     * @return false if the text can't contain any icon token.
+     */
+    public static boolean mayContainIcons(CharSequence text) {
+        if (text instanceof String) {
+            String string = (String) text;
+            int open = string.indexOf('{');
+            return open != -1 && string.indexOf('}', open + 1) != -1;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length && text.charAt(i) != '{') i++;
+        while (++i < length)
+            if (text.charAt(i) == '}') return true;
+        return false;
+    }
+
+    /** True if an icon token, such as {fa-xxx}, starts at the given index. */
+    static boolean isTokenStart(CharSequence text, int index, int length) {
+        return text.charAt(index) == '{' && index + 1 < length;
+    }
+
+    /**
+     * Find the end of the token starting at the given index.
+     * @return The index of the closing '}', or the bitwise complement of the index
+     * where the token was interrupted (the next '{' or the end of the text).
+     */
+    static int tokenEnd(CharSequence text, int start, int length) {
+        for (int i = start + 1; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '}') return i;
+            if (c == '{') return ~i;
+        }
+        return ~length;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GlyphMetricsTest {
+
+    private static final File TTF = new File("src/main/resources/fontawesome-webfont-4.1.0.ttf");
+
+    private static final char ADN = '\uf170';
+
+    private static final char GRADUATION_CAP = '\uf19d';
+
+    @Test
+    public void test_font() throws IOException {
+        GlyphMetrics metrics = GlyphMetrics.read(TTF);
+        assertEquals(1792, metrics.unitsPerEm());
+        assertEquals(1536, metrics.ascender());
+        assertEquals(-291, metrics.descender());
+    }
+
+    @Test
+    public void test_glyph() throws IOException {
+        GlyphMetrics metrics = GlyphMetrics.read(TTF);
+        int[] box = new int[4];
+        assertTrue(metrics.boundingBox(ADN, box));
+        assertArrayEquals(new int[]{0, -128, 1536, 1408}, box);
+        assertEquals(1536, metrics.advance(ADN));
+        assertEquals(2304, metrics.advance(GRADUATION_CAP));
+    }
+
+    @Test
+    public void test_missing() throws IOException {
+        GlyphMetrics metrics = GlyphMetrics.read(TTF);
+        assertEquals(0, metrics.glyph('A'));
+        assertFalse(metrics.boundingBox('A', new int[4]));
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IconTokenizerTest {
+
+    private final IconFontTable fontAwesome = IconFontTable.fontAwesome();
+
+    @Test
+    public void test_replaceIcons() {
+        assertEquals("A\uf170A\uf042A", replace("A{fa-adn}A{fa_adjust}A"));
+    }
+
+    @Test
+    public void test_replaceIcons_unresolved() {
+        assertEquals("A{fa-unknown}{xx-adn}{fa-adn\uf170", replace("A{fa-unknown}{xx-adn}{fa-adn{fa-adn}"));
+    }
+
+    @Test
+    public void test_replaceIcons_noToken() {
+        StringBuilder text = new StringBuilder("A {} B");
+        assertSame(text, IconTokenizer.replaceIcons(text, fontAwesome, null));
+    }
+
+    @Test
+    public void test_mayContainIcons() {
+        assertTrue(IconTokenizer.mayContainIcons("A {fa-adn}"));
+        assertTrue(IconTokenizer.mayContainIcons(new StringBuilder("{}")));
+        assertFalse(IconTokenizer.mayContainIcons("A } {"));
+        assertFalse(IconTokenizer.mayContainIcons(new StringBuilder("A } {")));
+    }
+
+    @Test
+    public void test_fontAwesome() {
+        assertEquals(FontAwesomeTable.NAMES.length, fontAwesome.size());
+        assertEquals("fa_star", fontAwesome.resolve("fa-star", 0, 7).key());
+        assertNull(fontAwesome.resolve("fa-nope", 0, 7));
+    }
+
+    @Test
+    public void test_metrics() {
+        IconMetricsRecorder recorder = new IconMetricsRecorder();
+        IconTokenizer.replaceIcons(new StringBuilder("{fa-adn} {fa-adn} {fa-nope}"), fontAwesome, recorder);
+        assertEquals(2, recorder.iconsResolved());
+    }
+
+    private String replace(String text) {
+        return IconTokenizer.replaceIcons(new StringBuilder(text), fontAwesome, null).toString();
+    }
+}
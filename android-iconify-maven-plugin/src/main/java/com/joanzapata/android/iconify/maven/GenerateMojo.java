@@ -0,0 +1,193 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify.maven;
+
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generate the lookup table of an icon font from its TTF file and its
+ * icons file, failing if an icon isn't in the font. The enum constants
+ * of the icons in the given source file, if any, are checked against the
+ * icons file: the build fails if they differ, unless {@link #updateEnumSource}
+ * is set to rewrite them. The build never changes the sources otherwise.
+ * The table and the enum can be generated in different modules, by
+ * executions setting only one of them. The TTF and icons files can be
+ * read from the dependencies of the project, such as the module owning
+ * them, with {@link #ttfResource} and {@link #iconsResource}.
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true,
+        requiresDependencyResolution = ResolutionScope.COMPILE)
+public class GenerateMojo extends AbstractMojo {
+
+    /** The TTF file of the font, or see {@link #ttfResource}. */
+    @Parameter
+    private File ttfFile;
+
+    /** Classpath resource of the TTF file, in the dependencies of the project, used if ttfFile isn't set. */
+    @Parameter
+    private String ttfResource;
+
+    /** The icons of the font, see {@link IconTable}, or see {@link #iconsResource}. */
+    @Parameter
+    private File iconsFile;
+
+    /** Classpath resource of the icons file, in the dependencies of the project, used if iconsFile isn't set. */
+    @Parameter
+    private String iconsResource;
+
+    /** Where the resources of the dependencies are extracted. */
+    @Parameter(defaultValue = "${project.build.directory}/iconify", required = true)
+    private File resourceDirectory;
+
+    /** Fully qualified name of the generated table class, if any. */
+    @Parameter
+    private String tableClass;
+
+    /** Source file containing the enum constants to keep in sync. */
+    @Parameter
+    private File enumSource;
+
+    /** Whether to rewrite the enum constants of {@link #enumSource} instead of failing when they differ. */
+    @Parameter(property = "iconify.updateEnumSource", defaultValue = "false")
+    private boolean updateEnumSource;
+
+    @Parameter(defaultValue = "${project.build.directory}/generated-sources/iconify", required = true)
+    private File outputDirectory;
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (tableClass == null && enumSource == null)
+            throw new MojoExecutionException("Nothing to generate, set tableClass and/or enumSource");
+        File ttfFile = file(this.ttfFile, ttfResource, "ttfFile");
+        File iconsFile = file(this.iconsFile, iconsResource, "iconsFile");
+        try {
+            TrueTypeFont font = TrueTypeFont.read(ttfFile);
+            IconTable table = IconTable.read(iconsFile);
+            Map<Character, Integer> characterToGlyph = font.characterToGlyph();
+            List<String> missing = table.missingFrom(characterToGlyph);
+            if (!missing.isEmpty())
+                throw new MojoFailureException("Icons of " + iconsFile.getName() + " missing from "
+                        + ttfFile.getName() + ": " + missing);
+            getLog().info(table.names.length + " icons in " + ttfFile.getName() + " ("
+                    + font.familyName() + ", " + font.version() + ")");
+
+            if (tableClass != null) {
+                File tableFile = new File(outputDirectory, tableClass.replace('.', File.separatorChar) + ".java");
+                writeIfChanged(tableFile, table.tableSource(tableClass, ttfFile, font));
+                project.addCompileSourceRoot(outputDirectory.getPath());
+            }
+
+            if (enumSource != null) {
+                String source = read(enumSource);
+                String expected = table.replaceEnumConstants(source, iconsFile);
+                if (!expected.equals(source)) {
+                    if (!updateEnumSource)
+                        throw new MojoFailureException("The enum constants of " + enumSource.getName()
+                                + " differ from " + iconsFile.getName()
+                                + ", run the build with -Diconify.updateEnumSource=true to update them");
+                    writeIfChanged(enumSource, expected);
+                    getLog().info("Updated the enum constants of " + enumSource.getName());
+                }
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to generate the icons of " + iconsFile.getName(), e);
+        }
+    }
+
+    /** @return The given file, or the given resource of the dependencies extracted to {@link #resourceDirectory}. */
+    private File file(File file, String resource, String parameter) throws MojoExecutionException {
+        if (file != null) return file;
+        if (resource == null) throw new MojoExecutionException("Set " + parameter + " or its resource");
+        try {
+            List<String> elements = project.getCompileClasspathElements();
+            URL[] urls = new URL[elements.size()];
+            for (int i = 0; i < urls.length; i++) urls[i] = new File(elements.get(i)).toURI().toURL();
+            URLClassLoader classLoader = new URLClassLoader(urls, null);
+            InputStream in = classLoader.getResourceAsStream(resource);
+            if (in == null) throw new MojoExecutionException("Resource not found in the dependencies: " + resource);
+            File extracted = new File(resourceDirectory, new File(resource).getName());
+            extracted.getParentFile().mkdirs();
+            OutputStream out = new FileOutputStream(extracted);
+            try {
+                byte[] buffer = new byte[8192];
+                int count;
+                while ((count = in.read(buffer)) != -1) out.write(buffer, 0, count);
+            } finally {
+                out.close();
+                in.close();
+            }
+            return extracted;
+        } catch (DependencyResolutionRequiredException e) {
+            throw new MojoExecutionException("Unable to resolve the dependencies to read " + resource, e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to extract " + resource, e);
+        }
+    }
+
+    /** @return true if the file was written, false if it already had this content. */
+    private static boolean writeIfChanged(File file, String content) throws IOException {
+        if (file.exists() && read(file).equals(content)) return false;
+        file.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        return true;
+    }
+
+    private static String read(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) != -1) out.write(buffer, 0, count);
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify.maven;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the icons referenced by the layouts, resources and code of a
+ * project, such as {fa-adjust} in a string or IconValue.fa_adjust in
+ * Java code. Only the {...} tokens and the constants of a type, whose
+ * name starts with an uppercase letter, are references: identifiers
+ * such as @+id/fa_button or R.drawable.fa_logo are not. Bare constants,
+ * such as fa_adjust, are references in the Java files importing the
+ * constants of the icon type with import static IconValue.*. In the files
+ * importing all the constants of another type, they're reported as
+ * {@link #unresolved()} since they may be icons. Icons referenced
+ * dynamically, like IconValue.values(), can't be found.
+ */
+final class IconScanner {
+
+    private static final Pattern STATIC_WILDCARD_IMPORT =
+            Pattern.compile("^\\s*import\\s+static\\s+(?:[A-Za-z0-9_$]+\\.)*([A-Za-z0-9_$]+)\\.\\*\\s*;");
+
+    private final Pattern pattern;
+
+    private final Pattern bareConstant;
+
+    private final String iconType;
+
+    /** Location of the first reference to each icon, by name, '-' replaced by '_'. */
+    private final Map<String, String> references = new TreeMap<String, String>();
+
+    /** Location of the first bare constant that may be an icon, by name, with the import that hides it. */
+    private final Map<String, String> unresolved = new TreeMap<String, String>();
+
+    /**
+     * @param prefix   The prefix of the icons, as in fa-adjust.
+     * @param iconType The simple name of the enum of the icons, as in IconValue.
+     */
+    IconScanner(String prefix, String iconType) {
+        this.iconType = iconType;
+        String quoted = Pattern.quote(prefix);
+        pattern = Pattern.compile("\\{(" + quoted + "[-_][a-z0-9]+(?:[-_][a-z0-9]+)*)\\}"
+                + "|(?<![A-Za-z0-9_])[A-Z][A-Za-z0-9_]*\\.(" + quoted + "_[a-z0-9]+(?:_[a-z0-9]+)*)(?![A-Za-z0-9_])");
+        bareConstant = Pattern.compile("(?<![A-Za-z0-9_$.])" + quoted + "_[a-z0-9]+(?:_[a-z0-9]+)*(?![A-Za-z0-9_$])");
+    }
+
+    /** Scan the given file, or the .java and .xml files of the given directory. */
+    void scan(File file) throws IOException {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children == null) return;
+            for (File child : children) scan(child);
+        } else if (file.getName().endsWith(".java") || file.getName().endsWith(".xml")) {
+            scanFile(file);
+        }
+    }
+
+    Map<String, String> references() {
+        return references;
+    }
+
+    /** The bare constants of the files that import all the constants of another type than the icons'. */
+    Map<String, String> unresolved() {
+        return unresolved;
+    }
+
+    private void scanFile(File file) throws IOException {
+        boolean java = file.getName().endsWith(".java");
+        // Set once an import static of all the constants is read, which precedes their uses
+        boolean iconsImported = false;
+        String otherImport = null;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String location = file.getPath() + ":" + lineNumber;
+                Matcher matcher = pattern.matcher(line);
+                while (matcher.find()) {
+                    String token = matcher.group(1);
+                    add(references, (token != null ? token : matcher.group(2)).replace('-', '_'), location);
+                }
+                if (!java) continue;
+
+                Matcher wildcard = STATIC_WILDCARD_IMPORT.matcher(line);
+                if (wildcard.find()) {
+                    if (wildcard.group(1).equals(iconType)) iconsImported = true;
+                    else if (otherImport == null) otherImport = line.trim();
+                    continue;
+                }
+                if (!iconsImported && otherImport == null) continue;
+                Matcher bare = bareConstant.matcher(line);
+                while (bare.find()) {
+                    if (iconsImported) add(references, bare.group(), location);
+                    else add(unresolved, bare.group(), location + " (" + otherImport + ")");
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void add(Map<String, String> names, String name, String location) {
+        if (!names.containsKey(name)) names.put(name, location);
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify.maven;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * The icons of a font, as listed in an icons file, and the sources
+ * generated from them. Each line of an icons file is the name of an
+ * icon and the hexadecimal code point of its character:
+ * <pre>
+ *     # Comment
+ *     fa-adjust f042
+ * </pre>
+ */
+final class IconTable {
+
+    static final String GENERATED_START = "// Generated icons";
+
+    static final String GENERATED_END = "// End of generated icons";
+
+    private static final Pattern NAME = Pattern.compile("[a-z][a-z0-9_-]*");
+
+    private static final Pattern CODE_POINT = Pattern.compile("[0-9a-fA-F]{1,4}");
+
+    /** Names of the icons, '-' replaced by '_', sorted. */
+    final String[] names;
+
+    /** Character of each icon, in the order of the names. */
+    final char[] characters;
+
+    IconTable(String[] names, char[] characters) {
+        this.names = names;
+        this.characters = characters;
+    }
+
+    static IconTable read(File iconsFile) throws IOException {
+        Map<String, Character> icons = new TreeMap<String, Character>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(iconsFile), "UTF-8"));
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.length() == 0 || line.startsWith("#")) continue;
+                String[] fields = line.split("\\s+");
+                if (fields.length != 2 || !NAME.matcher(fields[0]).matches() || !CODE_POINT.matcher(fields[1]).matches())
+                    throw new IOException(iconsFile.getName() + ":" + lineNumber + ": expected <name> <code point>, got " + line);
+                String name = fields[0].replace('-', '_');
+                if (icons.put(name, (char) Integer.parseInt(fields[1], 16)) != null)
+                    throw new IOException(iconsFile.getName() + ":" + lineNumber + ": duplicate icon " + fields[0]);
+            }
+        } finally {
+            reader.close();
+        }
+
+        String[] names = new String[icons.size()];
+        char[] characters = new char[icons.size()];
+        int i = 0;
+        for (Map.Entry<String, Character> icon : icons.entrySet()) {
+            names[i] = icon.getKey();
+            characters[i++] = icon.getValue();
+        }
+        return new IconTable(names, characters);
+    }
+
+    /**
+     * @param name The name of an icon, '-' replaced by '_'.
+     * @return Its position in the table, or a negative value if there's none.
+     */
+    int indexOf(String name) {
+        return Arrays.binarySearch(names, name);
+    }
+
+    /** @return The names of the icons whose character isn't mapped by the given cmap. */
+    List<String> missingFrom(Map<Character, Integer> characterToGlyph) {
+        List<String> missing = new ArrayList<String>();
+        for (int i = 0; i < names.length; i++)
+            if (!characterToGlyph.containsKey(characters[i]))
+                missing.add(names[i]);
+        return missing;
+    }
+
+    /**
+     * The slots of an IconIndex of the names, computed exactly as its
+     * constructor does, so that they don't have to be at runtime.
+     * Keep in sync with IconIndex.
+     */
+    int[] slots() {
+        int capacity = Integer.highestOneBit(Math.max(names.length, 1) * 2) * 2;
+        int[] slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int n = 0; n < names.length; n++) {
+            int i = hash(names[n]) & mask;
+            while (slots[i] != 0) i = (i + 1) & mask;
+            slots[i] = n + 1;
+        }
+        return slots;
+    }
+
+    private static int hash(String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            h = 31 * h + (c == '-' ? '_' : c);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Generate the lookup table class of the icons.
+     * @param className The fully qualified name of the class.
+     * @param ttfFile   The font file, shipped as a resource with the same name.
+     * @param font      The font, read from the file.
+     */
+    String tableSource(String className, File ttfFile, TrueTypeFont font) throws IOException {
+        int dot = className.lastIndexOf('.');
+        String packageName = className.substring(0, dot);
+        String simpleName = className.substring(dot + 1);
+
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("/**\n");
+        out.append(" * Icons of ").append(font.familyName()).append(", ").append(font.version()).append(".\n");
+        out.append(" * Generated from ").append(ttfFile.getName()).append(" by the android-iconify:generate goal, do not edit.\n");
+        out.append(" */\n");
+        out.append("final class ").append(simpleName).append(" {\n\n");
+        out.append("    static final String TTF_FILE = \"").append(ttfFile.getName()).append("\";\n\n");
+        out.append("    /** CRC32 of {@link #TTF_FILE}. */\n");
+        out.append("    static final long TTF_CRC32 = 0x").append(Long.toHexString(font.crc32())).append("L;\n\n");
+        out.append("    /** Names of the icons, sorted as the enum constants. */\n");
+        out.append("    static final String[] NAMES = {\n");
+        for (int i = 0; i < names.length; i++)
+            out.append("            \"").append(names[i]).append(i < names.length - 1 ? "\",\n" : "\"\n");
+        out.append("    };\n\n");
+        out.append("    /** Character of each icon, in the order of {@link #NAMES}. */\n");
+        out.append("    static final char[] CHARACTERS = {");
+        for (int i = 0; i < characters.length; i++) {
+            out.append(i % 12 == 0 ? "\n            " : " ");
+            out.append(String.format("0x%04x", (int) characters[i])).append(i < characters.length - 1 ? "," : "");
+        }
+        out.append("\n    };\n\n");
+        out.append("    /** Slots of an IconIndex of {@link #NAMES}, precomputed. */\n");
+        out.append("    static final int[] SLOTS = {");
+        int[] slots = slots();
+        for (int i = 0; i < slots.length; i++) {
+            out.append(i % 16 == 0 ? "\n            " : " ");
+            out.append(slots[i]).append(i < slots.length - 1 ? "," : "");
+        }
+        out.append("\n    };\n\n");
+        out.append("    private ").append(simpleName).append("() {\n");
+        out.append("    }\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    /**
+     * Replace the generated enum constants of a source file, between the
+     * {@link #GENERATED_START} and {@link #GENERATED_END} comments.
+     * @param source      The content of the source file.
+     * @param iconsFile   The icons file, named in the start comment.
+     * @return The new content of the source file.
+     */
+    String replaceEnumConstants(String source, File iconsFile) throws IOException {
+        int start = source.indexOf(GENERATED_START);
+        int end = source.indexOf(GENERATED_END);
+        if (start == -1 || end < start)
+            throw new IOException("Expected the enum constants between \"" + GENERATED_START + "\" and \"" + GENERATED_END + "\"");
+        String indent = source.substring(source.lastIndexOf('\n', start) + 1, start);
+
+        StringBuilder out = new StringBuilder(source.substring(0, start));
+        out.append(GENERATED_START).append(" from ").append(iconsFile.getName()).append(", do not edit\n");
+        for (int i = 0; i < names.length; i++) {
+            out.append(indent).append(names[i]).append('(').append(charLiteral(characters[i])).append(')');
+            out.append(i < names.length - 1 ? ",\n" : ";\n");
+        }
+        out.append(indent).append(source.substring(end));
+        return out.toString();
+    }
+
+    private static String charLiteral(char c) {
+        // Unicode escapes are translated before parsing, they can't express these
+        if (c < 0x20 || c == '\'' || c == '\\') return String.format("(char) 0x%04x", (int) c);
+        return String.format("'\\u%04x'", (int) c);
+    }
+}
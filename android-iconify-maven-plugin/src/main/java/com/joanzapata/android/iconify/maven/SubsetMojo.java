@@ -0,0 +1,183 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify.maven;
+
+import org.apache.maven.model.Resource;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Generate a subset of an icon font only containing the icons used by
+ * the project, found in its layouts, resources and code. Iconify loads
+ * it instead of the whole font when it's on the classpath, next to its
+ * checksum. The build fails if a referenced icon isn't in the subset, or
+ * if an icon may be referenced in a way that can't be resolved.
+ */
+@Mojo(name = "subset", defaultPhase = LifecyclePhase.GENERATE_RESOURCES, threadSafe = true)
+public class SubsetMojo extends AbstractMojo {
+
+    /** The TTF file of the font. */
+    @Parameter(required = true)
+    private File ttfFile;
+
+    /** The icons of the font, see {@link IconTable}. */
+    @Parameter(required = true)
+    private File iconsFile;
+
+    /** The prefix of the icons of the font. */
+    @Parameter(defaultValue = "fa", required = true)
+    private String prefix;
+
+    /** Files and directories to scan, the sources and the res directory by default. */
+    @Parameter
+    private File[] scanDirectories;
+
+    /** The simple name of the enum of the icons, whose constants may be imported with import static. */
+    @Parameter(defaultValue = "IconValue", required = true)
+    private String iconType;
+
+    /** Icons to keep even though they're not referenced, such as icons chosen at runtime. */
+    @Parameter
+    private String[] includes;
+
+    /**
+     * Whether to fail if an icon that the font doesn't contain is referenced, or
+     * if an icon may be referenced through an import static of another type.
+     */
+    @Parameter(defaultValue = "true")
+    private boolean failOnUnknownIcons;
+
+    @Parameter(defaultValue = "${project.build.directory}/generated-resources/iconify", required = true)
+    private File outputDirectory;
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        try {
+            TrueTypeFont font = TrueTypeFont.read(ttfFile);
+            IconTable table = IconTable.read(iconsFile);
+
+            IconScanner scanner = new IconScanner(prefix, iconType);
+            for (File directory : directories()) scanner.scan(directory);
+            Map<String, String> references = new TreeMap<String, String>(scanner.references());
+            if (includes != null)
+                for (String include : includes) references.put(include.replace('-', '_'), "includes");
+            List<String> unresolved = new ArrayList<String>();
+            for (Map.Entry<String, String> constant : scanner.unresolved().entrySet()) {
+                String name = constant.getKey();
+                if (!references.containsKey(name) && table.indexOf(name) >= 0)
+                    unresolved.add(name + " (" + constant.getValue() + ")");
+            }
+            if (!unresolved.isEmpty()) {
+                String message = "Icons possibly referenced through an import static of another type than "
+                        + iconType + ", list them in includes or qualify them: " + unresolved;
+                if (failOnUnknownIcons) throw new MojoFailureException(message);
+                getLog().warn(message);
+            }
+
+            List<Character> characters = new ArrayList<Character>();
+            List<String> unknown = new ArrayList<String>();
+            for (Map.Entry<String, String> reference : references.entrySet()) {
+                int index = table.indexOf(reference.getKey());
+                if (index >= 0) characters.add(table.characters[index]);
+                else unknown.add(reference.getKey() + " (" + reference.getValue() + ")");
+            }
+            if (!unknown.isEmpty()) {
+                String message = "Unknown icons referenced: " + unknown;
+                if (failOnUnknownIcons) throw new MojoFailureException(message);
+                getLog().warn(message);
+            }
+
+            byte[] subset = font.subset(characters);
+            TrueTypeFont subsetFont = new TrueTypeFont(subset);
+            List<String> missing = new ArrayList<String>();
+            for (Map.Entry<String, String> reference : references.entrySet()) {
+                int index = table.indexOf(reference.getKey());
+                if (index >= 0 && !subsetFont.hasOutline(table.characters[index]))
+                    missing.add(reference.getKey() + " (" + reference.getValue() + ")");
+            }
+            if (!missing.isEmpty())
+                throw new MojoFailureException("Icons missing from the subset of " + ttfFile.getName() + ": " + missing);
+
+            String subsetName = subsetName(ttfFile.getName());
+            CRC32 crc32 = new CRC32();
+            crc32.update(subset);
+            write(new File(outputDirectory, subsetName), subset);
+            write(new File(outputDirectory, subsetName + ".crc32"), Long.toHexString(crc32.getValue()).getBytes("US-ASCII"));
+            getLog().info("Subset of " + ttfFile.getName() + " with " + characters.size() + " icons: "
+                    + ttfFile.length() + " bytes -> " + subset.length + " bytes");
+
+            Resource resource = new Resource();
+            resource.setDirectory(outputDirectory.getPath());
+            project.addResource(resource);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to subset " + ttfFile, e);
+        }
+    }
+
+    private List<File> directories() {
+        List<File> directories = new ArrayList<File>();
+        if (scanDirectories != null) {
+            for (File directory : scanDirectories) directories.add(directory);
+        } else {
+            for (Object root : project.getCompileSourceRoots()) directories.add(new File((String) root));
+            directories.add(new File(project.getBasedir(), "res"));
+        }
+        return directories;
+    }
+
+    /**
+     * fontawesome-webfont-4.1.0.ttf becomes fontawesome-webfont-4.1.0.subset.ttf,
+     * keep in sync with Utils.subsetName.
+     */
+    static String subsetName(String ttfName) {
+        int extension = ttfName.lastIndexOf('.');
+        if (extension == -1) extension = ttfName.length();
+        return ttfName.substring(0, extension) + ".subset" + ttfName.substring(extension);
+    }
+
+    private static void write(File file, byte[] content) throws IOException {
+        file.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify.maven;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Minimal reader of the TrueType tables needed at build time:
+ * the character to glyph mapping (cmap) and the naming table (name).
+ * It also writes subsets of the font, see {@link #subset(Collection)}.
+ */
+final class TrueTypeFont {
+
+    private static final int PLATFORM_UNICODE = 0;
+    private static final int PLATFORM_MACINTOSH = 1;
+    private static final int PLATFORM_WINDOWS = 3;
+
+    private static final int NAME_FAMILY = 1;
+    private static final int NAME_VERSION = 5;
+
+    private static final int COMPOSITE_ARG_1_AND_2_ARE_WORDS = 0x0001;
+    private static final int COMPOSITE_WE_HAVE_A_SCALE = 0x0008;
+    private static final int COMPOSITE_MORE_COMPONENTS = 0x0020;
+    private static final int COMPOSITE_X_AND_Y_SCALE = 0x0040;
+    private static final int COMPOSITE_TWO_BY_TWO = 0x0080;
+
+    private static final long CHECKSUM_MAGIC = 0xb1b0afbaL;
+
+    private final byte[] data;
+
+    /** Offset and length of each table, by tag, sorted as in the table directory. */
+    private final Map<String, int[]> tables = new TreeMap<String, int[]>();
+
+    TrueTypeFont(byte[] data) throws IOException {
+        this.data = data;
+        ByteBuffer buffer = buffer();
+        int numTables = buffer.getShort(4) & 0xffff;
+        for (int i = 0; i < numTables; i++) {
+            int record = 12 + 16 * i;
+            byte[] tag = new byte[4];
+            System.arraycopy(data, record, tag, 0, 4);
+            int offset = buffer.getInt(record + 8);
+            int length = buffer.getInt(record + 12);
+            if (offset < 0 || length < 0 || offset + length > data.length)
+                throw new IOException("Truncated table " + new String(tag, "US-ASCII"));
+            tables.put(new String(tag, "US-ASCII"), new int[]{offset, length});
+        }
+    }
+
+    static TrueTypeFont read(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) file.length());
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) != -1) out.write(buffer, 0, count);
+            return new TrueTypeFont(out.toByteArray());
+        } finally {
+            in.close();
+        }
+    }
+
+    /** @return The CRC32 of the whole file, as checked by Iconify after extraction. */
+    long crc32() {
+        CRC32 crc32 = new CRC32();
+        crc32.update(data, 0, data.length);
+        return crc32.getValue();
+    }
+
+    /** @return The family name of the font, or null if it has none. */
+    String familyName() throws IOException {
+        return name(NAME_FAMILY);
+    }
+
+    /** @return The version string of the font, or null if it has none. */
+    String version() throws IOException {
+        return name(NAME_VERSION);
+    }
+
+    /**
+     * Read the unicode BMP subtable of the cmap, in format 4.
+     * @return The glyph index of each mapped character, glyph 0 excluded.
+     */
+    Map<Character, Integer> characterToGlyph() throws IOException {
+        ByteBuffer buffer = buffer();
+        int cmap = table("cmap")[0];
+        int numTables = buffer.getShort(cmap + 2) & 0xffff;
+        int subtable = -1;
+        for (int i = 0; i < numTables && subtable == -1; i++) {
+            int record = cmap + 4 + 8 * i;
+            int platform = buffer.getShort(record) & 0xffff;
+            int encoding = buffer.getShort(record + 2) & 0xffff;
+            int offset = cmap + buffer.getInt(record + 4);
+            boolean unicode = platform == PLATFORM_UNICODE || platform == PLATFORM_WINDOWS && encoding == 1;
+            if (unicode && buffer.getShort(offset) == 4) subtable = offset;
+        }
+        if (subtable == -1) throw new IOException("No unicode cmap subtable in format 4");
+
+        int segCount = (buffer.getShort(subtable + 6) & 0xffff) / 2;
+        int endCodes = subtable + 14;
+        int startCodes = endCodes + 2 * segCount + 2;
+        int idDeltas = startCodes + 2 * segCount;
+        int idRangeOffsets = idDeltas + 2 * segCount;
+
+        Map<Character, Integer> result = new HashMap<Character, Integer>();
+        for (int segment = 0; segment < segCount; segment++) {
+            int start = buffer.getShort(startCodes + 2 * segment) & 0xffff;
+            int end = buffer.getShort(endCodes + 2 * segment) & 0xffff;
+            int delta = buffer.getShort(idDeltas + 2 * segment);
+            int rangeOffsetPosition = idRangeOffsets + 2 * segment;
+            int rangeOffset = buffer.getShort(rangeOffsetPosition) & 0xffff;
+            for (int c = start; c <= end && c != 0xffff; c++) {
+                int glyph;
+                if (rangeOffset == 0) {
+                    glyph = (c + delta) & 0xffff;
+                } else {
+                    glyph = buffer.getShort(rangeOffsetPosition + rangeOffset + 2 * (c - start)) & 0xffff;
+                    if (glyph != 0) glyph = (glyph + delta) & 0xffff;
+                }
+                if (glyph != 0) result.put((char) c, glyph);
+            }
+        }
+        return result;
+    }
+
+    /** @return true if the given character is mapped to a glyph with an outline. */
+    boolean hasOutline(char c) throws IOException {
+        Integer glyph = characterToGlyph().get(c);
+        return glyph != null && glyphLength(glyph) > 0;
+    }
+
+    /**
+     * Create a subset of the font, only keeping the outlines of the given
+     * characters, of .notdef and of the components of the kept composite
+     * glyphs. The other glyphs are emptied rather than removed, so that
+     * glyph indices, and thus the cmap and the metrics, stay valid.
+     * The glyph names of the post table are dropped too.
+     * @return The content of the subset TTF file.
+     */
+    byte[] subset(Collection<Character> characters) throws IOException {
+        int numGlyphs = numGlyphs();
+        boolean[] kept = new boolean[numGlyphs];
+        keep(0, kept);
+        Map<Character, Integer> characterToGlyph = characterToGlyph();
+        for (Character c : characters) {
+            Integer glyph = characterToGlyph.get(c);
+            if (glyph != null) keep(glyph, kept);
+        }
+
+        // Copy the kept outlines, 4-byte aligned
+        int glyf = table("glyf")[0];
+        ByteArrayOutputStream newGlyf = new ByteArrayOutputStream();
+        int[] newOffsets = new int[numGlyphs + 1];
+        for (int glyph = 0; glyph < numGlyphs; glyph++) {
+            newOffsets[glyph] = newGlyf.size();
+            if (!kept[glyph]) continue;
+            newGlyf.write(data, glyf + glyphOffset(glyph), glyphLength(glyph));
+            while (newGlyf.size() % 4 != 0) newGlyf.write(0);
+        }
+        newOffsets[numGlyphs] = newGlyf.size();
+
+        boolean shortLoca = indexToLocFormat() == 0;
+        ByteBuffer newLoca = ByteBuffer.allocate((numGlyphs + 1) * (shortLoca ? 2 : 4));
+        for (int offset : newOffsets) {
+            if (shortLoca) newLoca.putShort((short) (offset / 2));
+            else newLoca.putInt(offset);
+        }
+
+        Map<String, byte[]> newTables = new TreeMap<String, byte[]>();
+        for (Map.Entry<String, int[]> table : tables.entrySet()) {
+            int[] range = table.getValue();
+            byte[] content = new byte[range[1]];
+            System.arraycopy(data, range[0], content, 0, range[1]);
+            newTables.put(table.getKey(), content);
+        }
+        newTables.put("glyf", newGlyf.toByteArray());
+        newTables.put("loca", newLoca.array());
+        byte[] post = newTables.get("post");
+        if (post != null && post.length >= 32) {
+            byte[] newPost = new byte[32];
+            System.arraycopy(post, 0, newPost, 0, 32);
+            ByteBuffer.wrap(newPost).putInt(0, 0x00030000);
+            newTables.put("post", newPost);
+        }
+        return write(newTables);
+    }
+
+    /** Keep the given glyph, and its components if it's a composite glyph. */
+    private void keep(int glyph, boolean[] kept) throws IOException {
+        if (glyph >= kept.length || kept[glyph]) return;
+        kept[glyph] = true;
+        if (glyphLength(glyph) == 0) return;
+
+        ByteBuffer buffer = buffer();
+        int offset = table("glyf")[0] + glyphOffset(glyph);
+        if (buffer.getShort(offset) >= 0) return;
+
+        int component = offset + 10;
+        int flags;
+        do {
+            flags = buffer.getShort(component) & 0xffff;
+            keep(buffer.getShort(component + 2) & 0xffff, kept);
+            component += 4;
+            component += (flags & COMPOSITE_ARG_1_AND_2_ARE_WORDS) != 0 ? 4 : 2;
+            if ((flags & COMPOSITE_WE_HAVE_A_SCALE) != 0) component += 2;
+            else if ((flags & COMPOSITE_X_AND_Y_SCALE) != 0) component += 4;
+            else if ((flags & COMPOSITE_TWO_BY_TWO) != 0) component += 8;
+        } while ((flags & COMPOSITE_MORE_COMPONENTS) != 0);
+    }
+
+    /** Write a font file with the given tables, computing their checksums. */
+    private byte[] write(Map<String, byte[]> newTables) throws IOException {
+        int numTables = newTables.size();
+        int size = 12 + 16 * numTables;
+        for (byte[] table : newTables.values()) size += padded(table.length);
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        int entrySelector = Integer.numberOfTrailingZeros(Integer.highestOneBit(numTables));
+        out.putInt(buffer().getInt(0));
+        out.putShort((short) numTables);
+        out.putShort((short) (16 << entrySelector));
+        out.putShort((short) entrySelector);
+        out.putShort((short) (numTables * 16 - (16 << entrySelector)));
+
+        int record = 12;
+        int offset = 12 + 16 * numTables;
+        int head = -1;
+        for (Map.Entry<String, byte[]> table : newTables.entrySet()) {
+            byte[] content = table.getValue();
+            if (table.getKey().equals("head")) {
+                // The adjustment is computed over the whole file, with this field set to 0
+                head = offset;
+                ByteBuffer.wrap(content).putInt(8, 0);
+            }
+            out.position(offset);
+            out.put(content);
+            out.position(record);
+            out.put(table.getKey().getBytes("US-ASCII"));
+            out.putInt((int) checksum(out, offset, content.length));
+            out.putInt(offset);
+            out.putInt(content.length);
+            record += 16;
+            offset += padded(content.length);
+        }
+        if (head == -1) throw new IOException("Missing table head");
+        out.putInt(head + 8, (int) (CHECKSUM_MAGIC - checksum(out, 0, size)));
+        return out.array();
+    }
+
+    private static long checksum(ByteBuffer buffer, int offset, int length) {
+        long sum = 0;
+        for (int i = offset; i < offset + padded(length); i += 4)
+            sum += buffer.getInt(i) & 0xffffffffL;
+        return sum & 0xffffffffL;
+    }
+
+    private static int padded(int length) {
+        return (length + 3) & ~3;
+    }
+
+    private int numGlyphs() throws IOException {
+        return buffer().getShort(table("maxp")[0] + 4) & 0xffff;
+    }
+
+    private int indexToLocFormat() throws IOException {
+        return buffer().getShort(table("head")[0] + 50);
+    }
+
+    /** Offset of a glyph in the glyf table. */
+    private int glyphOffset(int glyph) throws IOException {
+        int loca = table("loca")[0];
+        if (indexToLocFormat() == 0) return (buffer().getShort(loca + 2 * glyph) & 0xffff) * 2;
+        return buffer().getInt(loca + 4 * glyph);
+    }
+
+    private int glyphLength(int glyph) throws IOException {
+        return glyphOffset(glyph + 1) - glyphOffset(glyph);
+    }
+
+    private String name(int nameId) throws IOException {
+        ByteBuffer buffer = buffer();
+        int name = table("name")[0];
+        int count = buffer.getShort(name + 2) & 0xffff;
+        int strings = name + (buffer.getShort(name + 4) & 0xffff);
+        String fallback = null;
+        for (int i = 0; i < count; i++) {
+            int record = name + 6 + 12 * i;
+            int platform = buffer.getShort(record) & 0xffff;
+            if ((buffer.getShort(record + 6) & 0xffff) != nameId) continue;
+            int length = buffer.getShort(record + 8) & 0xffff;
+            int offset = strings + (buffer.getShort(record + 10) & 0xffff);
+            if (platform == PLATFORM_UNICODE || platform == PLATFORM_WINDOWS)
+                return new String(data, offset, length, "UTF-16BE");
+            if (platform == PLATFORM_MACINTOSH && fallback == null)
+                fallback = new String(data, offset, length, "ISO-8859-1");
+        }
+        return fallback;
+    }
+
+    private int[] table(String tag) throws IOException {
+        int[] table = tables.get(tag);
+        if (table == null) throw new IOException("Missing table " + tag);
+        return table;
+    }
+
+    private ByteBuffer buffer() {
+        // Big endian by default, as TrueType
+        return ByteBuffer.wrap(data);
+    }
+}
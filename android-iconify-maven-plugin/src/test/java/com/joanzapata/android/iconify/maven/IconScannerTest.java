@@ -0,0 +1,101 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify.maven;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IconScannerTest {
+
+    @Test
+    public void test_scan() throws IOException {
+        File directory = File.createTempFile("iconify", "");
+        directory.delete();
+        directory.mkdirs();
+        write(new File(directory, "strings.xml"), "<string name=\"a\">{fa-adjust} and {fa-arrow-circle-o-down}</string>\n");
+        write(new File(directory, "Main.java"), "import foo.sofa_bed;\nimport static com.example.Iconify.IconValue.fa_bell;\nnew IconDrawable(this, IconValue.fa_bolt);\n"
+                + "setImageResource(R.drawable.fa_logo);\nfindViewById(R.id.fa_button);\nString s = \"fa-camera\";\n");
+        write(new File(directory, "layout.xml"), "<Button android:id=\"@+id/fa_button\" android:text=\"{fa_cog}\" />\n");
+        write(new File(directory, "notes.txt"), "{fa-ignored}\n");
+
+        IconScanner scanner = new IconScanner("fa", "IconValue");
+        scanner.scan(directory);
+
+        assertEquals(Arrays.asList("fa_adjust", "fa_arrow_circle_o_down", "fa_bell", "fa_bolt", "fa_cog"),
+                new ArrayList<String>(scanner.references().keySet()));
+        assertEquals(new File(directory, "Main.java").getPath() + ":3", scanner.references().get("fa_bolt"));
+    }
+
+    @Test
+    public void test_scan_staticImport() throws IOException {
+        File directory = directory();
+        write(new File(directory, "Main.java"), "import static com.example.Iconify.IconValue.*;\n"
+                + "new IconDrawable(this, fa_bolt);\nsetImageResource(R.drawable.fa_logo);\n");
+        write(new File(directory, "strings.xml"), "<string name=\"fa_camera\">A</string>\n");
+
+        IconScanner scanner = new IconScanner("fa", "IconValue");
+        scanner.scan(directory);
+
+        assertEquals(Arrays.asList("fa_bolt"), new ArrayList<String>(scanner.references().keySet()));
+        assertTrue(scanner.unresolved().isEmpty());
+    }
+
+    @Test
+    public void test_scan_unresolvedStaticImport() throws IOException {
+        File directory = directory();
+        write(new File(directory, "Main.java"), "import static com.example.Icons.*;\n"
+                + "new IconDrawable(this, fa_bolt);\n");
+
+        IconScanner scanner = new IconScanner("fa", "IconValue");
+        scanner.scan(directory);
+
+        assertTrue(scanner.references().isEmpty());
+        assertEquals(Arrays.asList("fa_bolt"), new ArrayList<String>(scanner.unresolved().keySet()));
+        assertTrue(scanner.unresolved().get("fa_bolt").endsWith("Main.java:2 (import static com.example.Icons.*;)"));
+    }
+
+    private static File directory() throws IOException {
+        File directory = File.createTempFile("iconify", "");
+        directory.delete();
+        directory.mkdirs();
+        directory.deleteOnExit();
+        return directory;
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.deleteOnExit();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+}
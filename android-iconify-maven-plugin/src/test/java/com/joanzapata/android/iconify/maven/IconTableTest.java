@@ -0,0 +1,113 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify.maven;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IconTableTest {
+
+    @Test
+    public void test_read_sortedAndNormalized() throws IOException {
+        IconTable table = IconTable.read(iconsFile("# Comment\n\nfa-bolt f0e7\n  fa-adjust   F042  \n"));
+        assertArrayEquals(new String[]{"fa_adjust", "fa_bolt"}, table.names);
+        assertArrayEquals(new char[]{'\uf042', '\uf0e7'}, table.characters);
+    }
+
+    @Test
+    public void test_read_duplicate() throws IOException {
+        try {
+            IconTable.read(iconsFile("fa-adjust f042\nfa_adjust f043\n"));
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(":2: duplicate icon fa_adjust"));
+        }
+    }
+
+    @Test
+    public void test_read_malformed() throws IOException {
+        try {
+            IconTable.read(iconsFile("fa-adjust\n"));
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(":1: expected"));
+        }
+    }
+
+    @Test
+    public void test_missingFrom() {
+        IconTable table = new IconTable(new String[]{"fa_adjust", "fa_bolt"}, new char[]{'\uf042', '\uf0e7'});
+        Map<Character, Integer> cmap = new HashMap<Character, Integer>();
+        cmap.put('\uf042', 1);
+        assertEquals(Collections.singletonList("fa_bolt"), table.missingFrom(cmap));
+    }
+
+    @Test
+    public void test_slots() {
+        IconTable table = new IconTable(new String[]{"a", "b", "c"}, new char[3]);
+        int[] slots = table.slots();
+        assertEquals(8, slots.length);
+        int[] sorted = slots.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(new int[]{0, 0, 0, 0, 0, 1, 2, 3}, sorted);
+    }
+
+    @Test
+    public void test_replaceEnumConstants() throws IOException {
+        IconTable table = new IconTable(new String[]{"fa_adjust", "fa_bolt"}, new char[]{'\uf042', '\uf0e7'});
+        String source = "enum IconValue {\n"
+                + "    // Generated icons from old.icons, do not edit\n"
+                + "    fa_old('\\uf000');\n"
+                + "    // End of generated icons\n"
+                + "}\n";
+        assertEquals("enum IconValue {\n"
+                + "    // Generated icons from new.icons, do not edit\n"
+                + "    fa_adjust('\\uf042'),\n"
+                + "    fa_bolt('\\uf0e7');\n"
+                + "    // End of generated icons\n"
+                + "}\n", table.replaceEnumConstants(source, new File("new.icons")));
+    }
+
+    private static File iconsFile(String content) throws IOException {
+        File file = File.createTempFile("iconify", ".icons");
+        file.deleteOnExit();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+}
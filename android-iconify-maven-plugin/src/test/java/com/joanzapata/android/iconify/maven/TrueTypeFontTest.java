@@ -0,0 +1,74 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify.maven;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TrueTypeFontTest {
+
+    private static final File TTF = new File("../android-iconify-core/src/main/resources/fontawesome-webfont-4.1.0.ttf");
+
+    private static final char ADJUST = '\uf042';
+
+    private static final char BOLT = '\uf0e7';
+
+    @Test
+    public void test_read() throws IOException {
+        TrueTypeFont font = TrueTypeFont.read(TTF);
+        assertEquals("FontAwesome", font.familyName());
+        assertEquals("Version 4.1.0 2013", font.version());
+        assertEquals(0xb6469d24L, font.crc32());
+        assertTrue(font.characterToGlyph().containsKey(ADJUST));
+        assertTrue(font.hasOutline(ADJUST));
+    }
+
+    @Test
+    public void test_subset() throws IOException {
+        TrueTypeFont font = TrueTypeFont.read(TTF);
+        byte[] data = font.subset(Arrays.asList(ADJUST));
+        TrueTypeFont subset = new TrueTypeFont(data);
+
+        assertTrue(data.length < TTF.length() / 4);
+        assertEquals(font.characterToGlyph(), subset.characterToGlyph());
+        assertTrue(subset.hasOutline(ADJUST));
+        assertFalse(subset.hasOutline(BOLT));
+        assertEquals("FontAwesome", subset.familyName());
+    }
+
+    @Test
+    public void test_subset_checksumAdjustment() throws IOException {
+        byte[] data = TrueTypeFont.read(TTF).subset(Arrays.asList(ADJUST, BOLT));
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        long sum = 0;
+        for (int i = 0; i < data.length; i += 4)
+            sum += buffer.getInt(i) & 0xffffffffL;
+        assertEquals(0xb1b0afbaL, sum & 0xffffffffL);
+    }
+}
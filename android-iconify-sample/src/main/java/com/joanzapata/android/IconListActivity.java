@@ -32,18 +32,20 @@ import com.googlecode.androidannotations.annotations.OptionsItem;
 import com.googlecode.androidannotations.annotations.OptionsMenu;
 import com.googlecode.androidannotations.annotations.ViewById;
 import com.joanzapata.android.iconify.IconDrawable;
+import com.joanzapata.android.iconify.IconTemplate;
 import com.joanzapata.android.iconify.Iconify;
 import com.joanzapata.android.icons.sample.R;
 
 import static com.joanzapata.android.iconify.Iconify.IconValue;
 import static com.joanzapata.android.utils.IconUtils.sort;
-import static java.lang.String.format;
 import static java.util.Arrays.asList;
 
 @EActivity(R.layout.activity_iconlist)
 @OptionsMenu(R.menu.menu_iconlist)
 public class IconListActivity extends SherlockFragmentActivity {
 
+    private static final IconTemplate ITEM_TEMPLATE = IconTemplate.compile("%s  %s");
+
     @ViewById
     protected GridView gridView;
 
@@ -53,9 +55,10 @@ public class IconListActivity extends SherlockFragmentActivity {
         gridView.setAdapter(new QuickAdapter<IconValue>(this, R.layout.item, sort(asList(IconValue.values()))) {
             @Override
             protected void convert(BaseAdapterHelper helper, IconValue iconValue) {
-                String iconName = iconValue.toString().replaceAll("_", "-");
-                helper.setText(R.id.iconText, format("{%s}  %s", iconName, iconName));
-                Iconify.addIcons((TextView) helper.getView(R.id.iconText));
+                String iconName = iconValue.toString().replace('_', '-');
+                TextView iconText = (TextView) helper.getView(R.id.iconText);
+                iconText.setTypeface(Iconify.getTypeface(IconListActivity.this));
+                iconText.setText(ITEM_TEMPLATE.format(iconValue, iconName));
             }
         });
     }
@@ -21,11 +21,16 @@
 package android.widget;
 
 import android.content.Context;
+import android.graphics.Typeface;
+import android.text.Editable;
 import android.util.AttributeSet;
 import com.joanzapata.android.iconify.Iconify;
 
 public class IconTextView extends TextView {
 
+    /** The text after processing, as given back by getText(), so it is not processed twice. */
+    private CharSequence processed;
+
     public IconTextView(Context context) {
         super(context);
         init();
@@ -42,15 +47,26 @@ public class IconTextView extends TextView {
     }
 
     private void init() {
-        if (!isInEditMode())
-            Iconify.addIcons(this);
-        else
-          this.setText(this.getText());
+        // Unless the TextView constructor already set its text through setText()
+        if (!isInEditMode() && processed == null)
+            setText(getText());
     }
 
     @Override
     public void setText(CharSequence text, BufferType type) {
-        super.setText(Iconify.compute(text), type);
+        // Skip the text this view gave back through getText(), already processed
+        if (text != null && text != processed) {
+            CharSequence computed = Iconify.compute(text);
+            // Only a text with icons needs a typeface, that of their font, found from their names
+            if (computed != text && !isInEditMode()) {
+                Typeface typeface = Iconify.getTypeface(getContext(), text);
+                if (typeface != null) setTypeface(typeface);
+            }
+            text = computed;
+        }
+        super.setText(text, type);
+        // An Editable can change afterwards, so it's processed again
+        CharSequence current = getText();
+        processed = current instanceof Editable ? null : current;
     }
-
 }
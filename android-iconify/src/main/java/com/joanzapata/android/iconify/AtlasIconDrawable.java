@@ -0,0 +1,139 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+
+/**
+ * Draws an icon from an {@link IconAtlas}, a single bitmap copy, instead
+ * of rendering its glyph.
+ * <p/>
+ * <pre>
+ *     new AtlasIconDrawable(context, IconValue.fa_star, sizePx, color).atlas(atlas);
+ * </pre>
+ * While the atlas is not set, recycled, or doesn't contain the icon at
+ * this size and color, the icon is drawn by an {@link IconDrawable}.
+ * Like the cells of the atlas, the drawable is as wide as the glyph.
+ */
+public class AtlasIconDrawable extends Drawable {
+
+    private final Icon icon;
+
+    private final int sizePx;
+
+    private final int color;
+
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    private final Rect source = new Rect();
+
+    private final RectF destination = new RectF();
+
+    /** Draws the icon without the atlas, and gives its width. */
+    private final IconDrawable fallback;
+
+    private IconAtlas atlas;
+
+    /**
+     * @param sizePx The size of the icon, in pixels.
+     * @param color  The color of the icon.
+     */
+    public AtlasIconDrawable(Context context, Icon icon, int sizePx, int color) {
+        this.icon = icon;
+        this.sizePx = sizePx;
+        this.color = color;
+        // As wide as the glyph, like the cells of the atlas
+        fallback = new IconDrawable(context, icon).color(color).sizePx(sizePx);
+        setBounds(0, 0, fallback.getIntrinsicWidth(), sizePx);
+    }
+
+    /**
+     * Set the atlas to draw the icon from, null to draw it as an IconDrawable.
+     * @return The current AtlasIconDrawable for chaining.
+     */
+    public AtlasIconDrawable atlas(IconAtlas atlas) {
+        this.atlas = atlas;
+        invalidateSelf();
+        return this;
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        IconAtlas atlas = this.atlas;
+        if (atlas != null && atlas.sizePx() == sizePx && atlas.color() == color) {
+            Bitmap page = atlas.cell(icon, source);
+            if (page != null) {
+                // The cell and its padding, centered on the bounds as an IconDrawable would draw it
+                Rect bounds = getBounds();
+                float scale = bounds.height() / (float) sizePx;
+                float halfWidth = source.width() * scale / 2f;
+                float halfHeight = source.height() * scale / 2f;
+                destination.set(bounds.exactCenterX() - halfWidth, bounds.exactCenterY() - halfHeight,
+                        bounds.exactCenterX() + halfWidth, bounds.exactCenterY() + halfHeight);
+                canvas.drawBitmap(page, source, destination, paint);
+                return;
+            }
+        }
+        fallback.draw(canvas);
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        fallback.setBounds(bounds);
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return fallback.getIntrinsicWidth();
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return sizePx;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        paint.setAlpha(alpha);
+        fallback.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter cf) {
+        paint.setColorFilter(cf);
+        fallback.setColorFilter(cf);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A set of icons rasterized once at the same size and color into shared
+ * bitmaps, drawn by {@link AtlasIconDrawable}s, typically in grids and
+ * lists showing hundreds of distinct icons.
+ * <p/>
+ * <pre>
+ *     Future&lt;IconAtlas> atlas = IconAtlas.createInBackground(context, icons, sizePx, color, executor);
+ *     ...
+ *     new AtlasIconDrawable(context, icon, sizePx, color).atlas(atlas.get());
+ * </pre>
+ * Each icon gets a cell as wide as its glyph, so that wide glyphs don't
+ * bleed into their neighbours, plus {@link #PADDING} pixels on each side.
+ * An atlas uses about 4 * sizePx * sizePx bytes per icon. Its bitmaps are
+ * at most {@link #MAX_PAGE_SIZE} pixels wide and high, so that they can be
+ * drawn by hardware acceleration. They're released with {@link #recycle()},
+ * after which the drawables fall back to draw their icon as IconDrawables.
+ */
+public final class IconAtlas {
+
+    /** Maximum width and height of the bitmaps, supported by all GPUs. */
+    public static final int MAX_PAGE_SIZE = 2048;
+
+    /** Transparent pixels around each icon, for the antialiasing of its edges. */
+    static final int PADDING = 1;
+
+    private final int sizePx;
+
+    private final int color;
+
+    private final Map<Icon, Cell> cells;
+
+    private final Bitmap[] pages;
+
+    private volatile boolean recycled;
+
+    private IconAtlas(int sizePx, int color, Map<Icon, Cell> cells, Bitmap[] pages) {
+        this.sizePx = sizePx;
+        this.color = color;
+        this.cells = cells;
+        this.pages = pages;
+    }
+
+    /**
+     * Rasterize the given icons, on the calling thread.
+     * @param sizePx The size of the icons, in pixels.
+     * @param color  The color of the icons.
+     */
+    public static IconAtlas create(Context context, List<? extends Icon> icons, int sizePx, int color) {
+        int cellHeight = sizePx + 2 * PADDING;
+        if (sizePx <= 0 || cellHeight > MAX_PAGE_SIZE) throw new IllegalArgumentException("Invalid size: " + sizePx);
+
+        // Lay the cells out in rows, left to right, and the rows in pages, top to bottom
+        List<IconDrawable> drawables = new ArrayList<IconDrawable>();
+        List<Cell> drawableCells = new ArrayList<Cell>();
+        List<Rect> pageSizes = new ArrayList<Rect>();
+        Map<Icon, Cell> cells = new HashMap<Icon, Cell>();
+        Rect pageSize = new Rect();
+        int x = 0;
+        int y = 0;
+        for (Icon icon : icons) {
+            if (cells.containsKey(icon)) continue;
+            IconDrawable drawable = new IconDrawable(context, icon).color(color).sizePx(sizePx);
+            int cellWidth = drawable.getIntrinsicWidth() + 2 * PADDING;
+            if (cellWidth > MAX_PAGE_SIZE) throw new IllegalArgumentException("Icon too wide: " + icon.key());
+            if (x + cellWidth > MAX_PAGE_SIZE) {
+                x = 0;
+                y += cellHeight;
+            }
+            if (y + cellHeight > MAX_PAGE_SIZE) {
+                pageSizes.add(pageSize);
+                pageSize = new Rect();
+                y = 0;
+            }
+            Rect bounds = new Rect(x, y, x + cellWidth, y + cellHeight);
+            pageSize.right = Math.max(pageSize.right, bounds.right);
+            pageSize.bottom = Math.max(pageSize.bottom, bounds.bottom);
+            Cell cell = new Cell(pageSizes.size(), bounds);
+            cells.put(icon, cell);
+            drawables.add(drawable);
+            drawableCells.add(cell);
+            x += cellWidth;
+        }
+        if (!drawables.isEmpty()) pageSizes.add(pageSize);
+
+        Bitmap[] pages = new Bitmap[pageSizes.size()];
+        for (int page = 0; page < pages.length; page++)
+            pages[page] = Bitmap.createBitmap(pageSizes.get(page).width(), pageSizes.get(page).height(),
+                    Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas();
+        for (int i = 0; i < drawables.size(); i++) {
+            IconDrawable drawable = drawables.get(i);
+            Cell cell = drawableCells.get(i);
+            canvas.setBitmap(pages[cell.page]);
+            Rect bounds = cell.bounds;
+            drawable.setBounds(bounds.left + PADDING, bounds.top + PADDING,
+                    bounds.right - PADDING, bounds.bottom - PADDING);
+            drawable.drawUncached(canvas);
+        }
+        return new IconAtlas(sizePx, color, cells, pages);
+    }
+
+    /**
+     * Rasterize the given icons on the given executor.
+     * @return The atlas being created.
+     */
+    public static Future<IconAtlas> createInBackground(final Context context, final List<? extends Icon> icons,
+                                                       final int sizePx, final int color, Executor executor) {
+        final Context appContext = context.getApplicationContext();
+        FutureTask<IconAtlas> task = new FutureTask<IconAtlas>(new Callable<IconAtlas>() {
+            @Override
+            public IconAtlas call() {
+                return create(appContext, icons, sizePx, color);
+            }
+        });
+        executor.execute(task);
+        return task;
+    }
+
+    public int sizePx() {
+        return sizePx;
+    }
+
+    public int color() {
+        return color;
+    }
+
+    /** @return True if the atlas contains the given icon, even if it's recycled. */
+    public boolean contains(Icon icon) {
+        return cells.containsKey(icon);
+    }
+
+    /** @return The number of bytes of the bitmaps, 0 once recycled. */
+    public int byteCount() {
+        if (recycled) return 0;
+        int byteCount = 0;
+        for (Bitmap page : pages) byteCount += page.getRowBytes() * page.getHeight();
+        return byteCount;
+    }
+
+    /**
+     * Release the bitmaps, for instance when the screen is left or in
+     * onTrimMemory(). Call it on the UI thread, which draws them.
+     */
+    public void recycle() {
+        recycled = true;
+        for (Bitmap page : pages) page.recycle();
+    }
+
+    public boolean isRecycled() {
+        return recycled;
+    }
+
+    /**
+     * Find the cell of an icon.
+     * @param source Set to the bounds of the cell in the returned bitmap, padding included.
+     * @return The bitmap containing the icon, or null if it's not in the atlas or if it's recycled.
+     */
+    Bitmap cell(Icon icon, Rect source) {
+        Cell cell = cells.get(icon);
+        if (cell == null || recycled) return null;
+        source.set(cell.bounds);
+        return pages[cell.page];
+    }
+
+    /** The place of an icon in the atlas. */
+    private static final class Cell {
+
+        final int page;
+
+        final Rect bounds;
+
+        Cell(int page, Rect bounds) {
+            this.page = page;
+            this.bounds = bounds;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Computes large batches of texts, such as feeds of messages, split in
+ * chunks run in parallel on the given executor. It blocks until all the
+ * texts are computed, so it's meant to be called off the UI thread.
+ * <p/>
+ * <pre>
+ *     IconBatch.Result result = IconBatch.compute(messages, executor);
+ *     List&lt;CharSequence> texts = result.texts();
+ * </pre>
+ * Each text is computed by {@link Iconify#compute(CharSequence)}, which is
+ * safe to call concurrently: the registered fonts and their indexes are
+ * immutable once published, and {@link IconComputeCache} is synchronized.
+ */
+public final class IconBatch {
+
+    /** Large enough for the scheduling overhead to be negligible. */
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+
+    private IconBatch() {
+        // Prevent instantiation
+    }
+
+    /** Compute the given texts in chunks of {@link #DEFAULT_CHUNK_SIZE}. */
+    public static Result compute(List<? extends CharSequence> texts, Executor executor) throws InterruptedException {
+        return compute(texts, executor, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Compute the given texts in chunks run on the given executor.
+     * @param texts     The texts, which must not change until this returns.
+     * @param chunkSize The number of texts computed by each task.
+     * @return The computed texts, in the same order, and the timing of the batch.
+     * @throws InterruptedException if interrupted while waiting, the chunks not started yet are cancelled.
+     */
+    public static Result compute(List<? extends CharSequence> texts, Executor executor, int chunkSize)
+            throws InterruptedException {
+        if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize <= 0");
+        long start = System.nanoTime();
+        CharSequence[] results = new CharSequence[texts.size()];
+        List<FutureTask<Long>> chunks = new ArrayList<FutureTask<Long>>();
+        for (int from = 0; from < results.length; from += chunkSize) {
+            FutureTask<Long> chunk = new FutureTask<Long>(
+                    new Chunk(texts, results, from, Math.min(from + chunkSize, results.length)));
+            chunks.add(chunk);
+            executor.execute(chunk);
+        }
+
+        long computeNanos = 0;
+        try {
+            for (FutureTask<Long> chunk : chunks)
+                computeNanos += chunk.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            for (FutureTask<Long> chunk : chunks)
+                chunk.cancel(false);
+        }
+        // Future.get() made the writes of all chunks visible
+        return new Result(Arrays.asList(results), System.nanoTime() - start, computeNanos, chunks.size());
+    }
+
+    /** Computes a range of texts, returns the time it took. */
+    private static final class Chunk implements Callable<Long> {
+
+        private final List<? extends CharSequence> texts;
+        private final CharSequence[] results;
+        private final int from;
+        private final int to;
+
+        Chunk(List<? extends CharSequence> texts, CharSequence[] results, int from, int to) {
+            this.texts = texts;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Long call() {
+            long start = System.nanoTime();
+            for (int i = from; i < to; i++)
+                results[i] = Iconify.compute(texts.get(i));
+            return System.nanoTime() - start;
+        }
+    }
+
+    /** The computed texts of a batch, and its timing. */
+    public static final class Result {
+
+        private final List<CharSequence> texts;
+        private final long elapsedNanos;
+        private final long computeNanos;
+        private final int chunkCount;
+
+        Result(List<CharSequence> texts, long elapsedNanos, long computeNanos, int chunkCount) {
+            this.texts = Collections.unmodifiableList(texts);
+            this.elapsedNanos = elapsedNanos;
+            this.computeNanos = computeNanos;
+            this.chunkCount = chunkCount;
+        }
+
+        /** @return The computed texts, in the order of the input texts. */
+        public List<CharSequence> texts() {
+            return texts;
+        }
+
+        /** @return The wall-clock time of the batch, in nanoseconds. */
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /** @return The time spent computing, summed over all the chunks, in nanoseconds. */
+        public long computeNanos() {
+            return computeNanos;
+        }
+
+        /** @return The number of chunks the batch was split in. */
+        public int chunkCount() {
+            return chunkCount;
+        }
+    }
+}
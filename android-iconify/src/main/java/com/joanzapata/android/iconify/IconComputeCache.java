@@ -0,0 +1,207 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.text.SpannableString;
+import android.text.Spanned;
+import android.text.SpannedString;
+import android.util.LruCache;
+
+import java.util.Arrays;
+
+/**
+ * Process-wide cache of {@link Iconify#compute(CharSequence)} results,
+ * useful when the same labels are computed again and again, such as
+ * in recycled list rows. Once enabled, compute() uses it transparently.
+ * <p/>
+ * <pre>
+ *     IconComputeCache.enable(200);
+ * </pre>
+ * Texts are keyed by their characters and, for Spanned texts, by the class,
+ * range and flags of their spans. Results are immutable, those of Spanned
+ * texts are rebuilt with the spans of the text being computed.
+ * Results computed before an icon font is registered are never returned
+ * afterwards, they're left to the LRU eviction.
+ */
+public final class IconComputeCache {
+
+    private static volatile IconComputeCache instance;
+
+    private final LruCache<Key, Result> results;
+
+    private IconComputeCache(int maxEntries) {
+        results = new LruCache<Key, Result>(maxEntries);
+    }
+
+    /**
+     * Enable the cache, replacing the current one if any.
+     * @param maxEntries The maximum number of cached results.
+     */
+    public static void enable(int maxEntries) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries <= 0");
+        instance = new IconComputeCache(maxEntries);
+    }
+
+    /** Disable the cache, the cached results are released with it. */
+    public static void disable() {
+        instance = null;
+    }
+
+    /** @return The current cache, or null if it's not enabled. */
+    public static IconComputeCache getInstance() {
+        return instance;
+    }
+
+    /** @return The number of texts served from the cache. */
+    public int hitCount() {
+        return results.hitCount();
+    }
+
+    /** @return The number of texts that had to be computed. */
+    public int missCount() {
+        return results.missCount();
+    }
+
+    /** @return The number of results evicted to stay within the maximum size. */
+    public int evictionCount() {
+        return results.evictionCount();
+    }
+
+    /** @return The number of cached results. */
+    public int size() {
+        return results.size();
+    }
+
+    /** @return The maximum number of cached results. */
+    public int maxSize() {
+        return results.maxSize();
+    }
+
+    /** Release all cached results, keeping the cache enabled. */
+    public void evictAll() {
+        results.evictAll();
+    }
+
+    CharSequence compute(CharSequence text) {
+        Object[] spans = text instanceof Spanned
+                ? ((Spanned) text).getSpans(0, text.length(), Object.class) : Key.NO_SPANS;
+        Key key = new Key(IconFontRegistry.get(), text, spans);
+        Result result = results.get(key);
+        if (result == null) {
+            result = new Result(Iconify.computeUncached(text), spans);
+            results.put(key, result);
+        }
+        return result.apply(spans);
+    }
+
+    /**
+     * The characters of a text and, if it's Spanned, the class, range and
+     * flags of each of its spans. The spans themselves aren't kept, so that
+     * a text rebuilt with equal spans hits the cache, and they're released
+     * along with their text.
+     */
+    private static final class Key {
+
+        static final Object[] NO_SPANS = new Object[0];
+
+        /** Immutable, replaced when a font is registered. */
+        private final IconFontRegistry registry;
+
+        private final String text;
+
+        /** The classes of the spans. */
+        private final Class<?>[] classes;
+
+        /** The start, end and flags of each span. */
+        private final int[] ranges;
+
+        private final int hashCode;
+
+        Key(IconFontRegistry registry, CharSequence text, Object[] spans) {
+            this.registry = registry;
+            this.text = text.toString();
+            classes = new Class<?>[spans.length];
+            ranges = new int[spans.length * 3];
+            for (int i = 0; i < spans.length; i++) {
+                Spanned spanned = (Spanned) text;
+                classes[i] = spans[i].getClass();
+                ranges[i * 3] = spanned.getSpanStart(spans[i]);
+                ranges[i * 3 + 1] = spanned.getSpanEnd(spans[i]);
+                ranges[i * 3 + 2] = spanned.getSpanFlags(spans[i]);
+            }
+            hashCode = 31 * (31 * this.text.hashCode() + Arrays.hashCode(classes)) + Arrays.hashCode(ranges);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return hashCode == key.hashCode
+                    && registry == key.registry
+                    && text.equals(key.text)
+                    && Arrays.equals(classes, key.classes)
+                    && Arrays.equals(ranges, key.ranges);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * The characters of a result and, if the text was Spanned, where each of
+     * its spans ended up, in the order of the spans of the key.
+     */
+    private static final class Result {
+
+        private final String text;
+
+        /** The start, end and flags of each span in the result, start is -1 if it was removed. */
+        private final int[] ranges;
+
+        Result(CharSequence result, Object[] spans) {
+            text = result.toString();
+            ranges = new int[spans.length * 3];
+            for (int i = 0; i < spans.length; i++) {
+                Spanned spanned = (Spanned) result;
+                ranges[i * 3] = spanned.getSpanStart(spans[i]);
+                ranges[i * 3 + 1] = spanned.getSpanEnd(spans[i]);
+                ranges[i * 3 + 2] = spanned.getSpanFlags(spans[i]);
+            }
+        }
+
+        /**
+         * @param spans The spans of the text being computed, matching those of the key.
+         * @return The result with the given spans, the shared String if there are none.
+         */
+        CharSequence apply(Object[] spans) {
+            if (spans == Key.NO_SPANS) return text;
+            SpannableString result = new SpannableString(text);
+            for (int i = 0; i < spans.length; i++) {
+                if (ranges[i * 3] >= 0)
+                    result.setSpan(spans[i], ranges[i * 3], ranges[i * 3 + 1], ranges[i * 3 + 2]);
+            }
+            return new SpannedString(result);
+        }
+    }
+}
@@ -24,12 +24,16 @@ import static com.joanzapata.android.iconify.Utils.convertDpToPx;
 import static com.joanzapata.android.iconify.Utils.isEnabled;
 import static java.lang.String.valueOf;
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.ColorFilter;
 import android.graphics.Paint;
 import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Animatable;
 import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
 import android.text.TextPaint;
 
 /**
@@ -43,36 +47,72 @@ import android.text.TextPaint;
  * If you don't set the size of the drawable, it will use the size
  * that is given to him. Note that in an ActionBar, if you don't
  * set the size explicitly it uses 0, so please use actionBarSize().
+ * <p/>
+ * Drawables created from {@link #getConstantState()} share the icon,
+ * the paint and the measured glyph with this one, call {@link #mutate()}
+ * before changing one of them independently.
+ * <p/>
+ * With {@link #drawAsPath(boolean)}, the glyph is drawn as a path scaled by
+ * the canvas instead of as text, which suits animated and large icons.
+ * <p/>
+ * {@link #spin()} and {@link #pulse()} rotate the icon on each frame while
+ * it's visible, like fa-spin and fa-pulse, only changing the transform of
+ * the canvas. The animation stops when the drawable is hidden or detached
+ * from its view. Started before the drawable has a view, it begins when
+ * the drawable is first drawn or shown with one.
  */
-public class IconDrawable extends Drawable {
+public class IconDrawable extends Drawable implements Animatable, Runnable {
 
     public static final int ANDROID_ACTIONBAR_ICON_SIZE_DP = 24;
 
+    /** Duration of a full turn, in milliseconds. */
+    private static final int SPIN_DURATION = 2000;
+
+    /** Number of steps of a full turn when pulsing. */
+    private static final int PULSE_STEPS = 8;
+
+    private static final int PULSE_DURATION = 1000;
+
+    private static final int FRAME_DELAY = 16;
+
+    enum Animation {SPIN, PULSE}
+
     private final Context context;
 
-    private final Iconify.IconValue icon;
+    private IconState state;
+
+    private boolean mutated;
+
+    private boolean enabled = true;
+
+    private IconRenderCache.Key renderKey;
+
+    private int measuredGeneration = -1;
+
+    private float textX, textY;
+
+    /** How far the glyph overflows the bounds on each side, in pixels. */
+    private int overflowX, overflowY;
 
-    private TextPaint paint;
+    private boolean running;
 
-    private int size = -1;
+    /** True if the animation must start as soon as there's a view to draw it. */
+    private boolean pending;
 
-    private int alpha = 255;
+    private long startTime;
 
     /**
      * Create an IconDrawable.
      * @param context Your activity or application context.
      * @param icon    The icon you want this drawable to display.
      */
-    public IconDrawable(Context context, Iconify.IconValue icon) {
+    public IconDrawable(Context context, Icon icon) {
+        this(context, new IconState(context.getApplicationContext(), icon));
+    }
+
+    private IconDrawable(Context context, IconState state) {
         this.context = context;
-        this.icon = icon;
-        paint = new TextPaint();
-        paint.setTypeface(Iconify.getTypeface(context));
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setTextAlign(Paint.Align.CENTER);
-        paint.setUnderlineText(false);
-        paint.setColor(Color.BLACK);
-        paint.setAntiAlias(true);
+        this.state = state;
     }
 
     /**
@@ -107,8 +147,8 @@ public class IconDrawable extends Drawable {
      * @return The current IconDrawable for chaining.
      */
     public IconDrawable sizePx(int size) {
-        this.size = size;
-        setBounds(0, 0, size, size);
+        state.size = size;
+        setBounds(0, 0, state.width(), size);
         invalidateSelf();
         return this;
     }
@@ -119,7 +159,7 @@ public class IconDrawable extends Drawable {
      * @return The current IconDrawable for chaining.
      */
     public IconDrawable color(int color) {
-        paint.setColor(color);
+        state.paint.setColor(color);
         invalidateSelf();
         return this;
     }
@@ -130,7 +170,7 @@ public class IconDrawable extends Drawable {
      * @return The current IconDrawable for chaining.
      */
     public IconDrawable colorRes(int colorRes) {
-        paint.setColor(context.getResources().getColor(colorRes));
+        state.paint.setColor(context.getResources().getColor(colorRes));
         invalidateSelf();
         return this;
     }
@@ -146,24 +186,249 @@ public class IconDrawable extends Drawable {
         return this;
     }
 
+    /**
+     * Draw the glyph as a path instead of text. The outline of the glyph is
+     * extracted once and shared by all the drawables, then scaled to the
+     * bounds by the canvas, so scale and rotation animations or large sizes
+     * don't go through the text rendering and its glyph cache on each frame.
+     * @param drawAsPath True to draw paths, false to draw text, the default.
+     * @return The current IconDrawable for chaining.
+     */
+    public IconDrawable drawAsPath(boolean drawAsPath) {
+        state.drawAsPath = drawAsPath;
+        state.invalidateMeasure();
+        invalidateSelf();
+        return this;
+    }
+
+    /**
+     * Rotate the icon continuously, one turn every 2 seconds.
+     * @return The current IconDrawable for chaining.
+     */
+    public IconDrawable spin() {
+        return animate(Animation.SPIN);
+    }
+
+    /**
+     * Rotate the icon by eighths of a turn, one turn every second.
+     * @return The current IconDrawable for chaining.
+     */
+    public IconDrawable pulse() {
+        return animate(Animation.PULSE);
+    }
+
+    private IconDrawable animate(Animation animation) {
+        state.animation = animation;
+        stop();
+        start();
+        return this;
+    }
+
+    @Override
+    public void start() {
+        if (running || state.animation == null) return;
+        if (getCallback() == null) {
+            // Nothing would draw the frames yet
+            pending = true;
+            return;
+        }
+        pending = false;
+        running = true;
+        startTime = SystemClock.uptimeMillis();
+        run();
+    }
+
+    @Override
+    public void stop() {
+        pending = false;
+        if (!running) return;
+        running = false;
+        unscheduleSelf(this);
+        invalidateSelf();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Draw the next frame, scheduled on the frame callbacks of the view. */
+    @Override
+    public void run() {
+        if (!running) return;
+        if (getCallback() == null) {
+            // Detached from its view, resumed if it's drawn again
+            running = false;
+            pending = true;
+            return;
+        }
+        invalidateSelf();
+        long now = SystemClock.uptimeMillis();
+        long next = now + FRAME_DELAY;
+        if (state.animation == Animation.PULSE) {
+            // Only draw again on the next step
+            long step = PULSE_DURATION / PULSE_STEPS;
+            next = now + step - (now - startTime) % step;
+        }
+        scheduleSelf(this, next);
+    }
+
+    @Override
+    public boolean setVisible(boolean visible, boolean restart) {
+        boolean changed = super.setVisible(visible, restart);
+        if (!visible) stop();
+        else if (changed || restart) {
+            stop();
+            start();
+        } else if (pending) {
+            start();
+        }
+        return changed;
+    }
+
+    /** @return The rotation of the icon at the current frame, in degrees. */
+    float rotation() {
+        if (!running) return 0;
+        long elapsed = SystemClock.uptimeMillis() - startTime;
+        if (state.animation == Animation.PULSE)
+            return 360f / PULSE_STEPS * (elapsed * PULSE_STEPS / PULSE_DURATION % PULSE_STEPS);
+        return 360f * (elapsed % SPIN_DURATION) / SPIN_DURATION;
+    }
+
     @Override
     public int getIntrinsicHeight() {
-        return size;
+        return state.size;
     }
 
+    /** Wide enough for glyphs wider than the em, such as fa_arrows_h, not to be clipped. */
     @Override
     public int getIntrinsicWidth() {
-        return size;
+        return state.width();
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        measure();
+    }
+
+    /**
+     * Compute the text position, only needed when the bounds or the state change.
+     * It uses the metrics read from the font if any, the glyph measure otherwise,
+     * which is shared with the drawables of the same state.
+     */
+    private void measure() {
+        Rect bounds = getBounds();
+        int height = bounds.height();
+        textX = bounds.width() / 2f;
+
+        // The extent of the glyph around the text position
+        float halfWidth, top, bottom;
+        if (state.drawAsPath) {
+            RectF glyphBounds = state.glyph().bounds;
+            float scale = height / IconPathCache.REFERENCE_SIZE;
+            textY = height / 2f - (glyphBounds.top + glyphBounds.bottom) / 2f * scale;
+            halfWidth = Math.max(-glyphBounds.left, glyphBounds.right) * scale;
+            top = glyphBounds.top * scale;
+            bottom = glyphBounds.bottom * scale;
+        } else if (state.hasGlyphMetrics) {
+            textY = height / 2f - (state.glyphTop + state.glyphBottom) / 2f * height;
+            halfWidth = state.glyphWidth * height / 2f;
+            top = state.glyphTop * height;
+            bottom = state.glyphBottom * height;
+        } else {
+            Rect textBounds = state.measure(height);
+            textY = (height - textBounds.height()) / 2f + textBounds.height() - textBounds.bottom;
+            halfWidth = textBounds.width() / 2f;
+            top = textBounds.top;
+            bottom = textBounds.bottom;
+        }
+
+        // Strokes are drawn across the outline
+        Paint paint = state.paint;
+        float stroke = paint.getStyle() == Paint.Style.FILL ? 0 : paint.getStrokeWidth() / 2f;
+        overflowX = Math.max(0, (int) Math.ceil(halfWidth + stroke - textX));
+        overflowY = Math.max(0, (int) Math.ceil(Math.max(stroke - textY - top, textY + bottom + stroke - height)));
+        measuredGeneration = state.generation;
     }
 
     @Override
     public void draw(Canvas canvas) {
+        if (pending && isVisible()) start();
+        float rotation = rotation();
+        if (rotation == 0) {
+            drawFrame(canvas);
+            return;
+        }
+        Rect bounds = getBounds();
+        int saveCount = canvas.save();
+        canvas.rotate(rotation, bounds.exactCenterX(), bounds.exactCenterY());
+        drawFrame(canvas);
+        canvas.restoreToCount(saveCount);
+    }
+
+    private void drawFrame(Canvas canvas) {
+        Rect bounds = getBounds();
+        TextPaint paint = preparePaint();
+
+        IconRenderCache cache = IconRenderCache.getInstance();
+        IconMetrics metrics = Iconify.metrics;
+        if (cache == null || paint.getColorFilter() != null || bounds.isEmpty()) {
+            drawIcon(canvas, bounds.left, bounds.top);
+            if (metrics != null) metrics.onDraw(state.icon, false);
+            return;
+        }
+
+        // The bitmap contains the whole glyph, even where it overflows the bounds
+        int width = bounds.width();
+        int height = bounds.height();
+        if (renderKey == null || !renderKey.matches(state.icon, width, height, overflowX, overflowY, state.drawAsPath, paint))
+            renderKey = new IconRenderCache.Key(state.icon, width, height, overflowX, overflowY, state.drawAsPath, paint);
+        Bitmap bitmap = cache.get(renderKey, this);
+        canvas.drawBitmap(bitmap, bounds.left - overflowX, bounds.top - overflowY, null);
+        if (metrics != null) metrics.onDraw(state.icon, true);
+    }
+
+    /** Draw without {@link IconRenderCache}, for instance into another cache. */
+    void drawUncached(Canvas canvas) {
+        Rect bounds = getBounds();
+        preparePaint();
+        drawIcon(canvas, bounds.left, bounds.top);
+    }
+
+    private TextPaint preparePaint() {
+        if (measuredGeneration != state.generation) measure();
+
+        // The paint may be shared, so apply the values specific to this drawable
+        TextPaint paint = state.paint;
         paint.setTextSize(getBounds().height());
-        Rect textBounds = new Rect();
-        String textValue = valueOf(icon.character);
-        paint.getTextBounds(textValue, 0, 1, textBounds);
-        float textBottom = (getBounds().height() - textBounds.height()) / 2f + textBounds.height() - textBounds.bottom;
-        canvas.drawText(textValue, getBounds().width() / 2f, textBottom, paint);
+        paint.setAlpha(enabled ? state.alpha : state.alpha / 2);
+        return paint;
+    }
+
+    /** Draw the icon with its top left corner at the given position. */
+    void drawIcon(Canvas canvas, float left, float top) {
+        if (!state.drawAsPath) {
+            canvas.drawText(state.text, left + textX, top + textY, state.paint);
+            return;
+        }
+
+        float scale = getBounds().height() / IconPathCache.REFERENCE_SIZE;
+        if (scale <= 0) return;
+        Paint paint = state.paint;
+        Paint.Style style = paint.getStyle();
+        float strokeWidth = paint.getStrokeWidth();
+        // Hairline strokes of text are filled, and wider strokes must not be scaled
+        if (style == Paint.Style.STROKE && strokeWidth == 0) paint.setStyle(Paint.Style.FILL);
+        else paint.setStrokeWidth(strokeWidth / scale);
+
+        int saveCount = canvas.save();
+        canvas.translate(left + textX, top + textY);
+        canvas.scale(scale, scale);
+        canvas.drawPath(state.glyph().path, paint);
+        canvas.restoreToCount(saveCount);
+
+        paint.setStyle(style);
+        paint.setStrokeWidth(strokeWidth);
     }
 
     @Override
@@ -173,31 +438,29 @@ public class IconDrawable extends Drawable {
 
     @Override
     public boolean setState(int[] stateSet) {
-        int oldValue = paint.getAlpha();
-        int newValue = isEnabled(stateSet) ? alpha : alpha / 2;
-        paint.setAlpha(newValue);
-        return oldValue != newValue;
+        boolean oldValue = enabled;
+        enabled = isEnabled(stateSet);
+        return oldValue != enabled;
     }
 
     @Override
     public void setAlpha(int alpha) {
-        this.alpha = alpha;
-        paint.setAlpha(alpha);
+        state.alpha = alpha;
     }
 
     @Override
     public void setColorFilter(ColorFilter cf) {
-        paint.setColorFilter(cf);
+        state.paint.setColorFilter(cf);
     }
 
     @Override
     public void clearColorFilter() {
-        paint.setColorFilter(null);
+        state.paint.setColorFilter(null);
     }
 
     @Override
     public int getOpacity() {
-        return this.alpha;
+        return state.alpha;
     }
 
     /**
@@ -205,7 +468,143 @@ public class IconDrawable extends Drawable {
      * @param style to be applied
      */
     public void setStyle(Paint.Style style) {
-    	paint.setStyle(style);
+    	state.paint.setStyle(style);
+        state.invalidateMeasure();
+    }
+
+    @Override
+    public ConstantState getConstantState() {
+        return state;
+    }
+
+    /**
+     * Make this drawable mutable, so that changing it doesn't
+     * change the drawables sharing the same constant state.
+     */
+    @Override
+    public Drawable mutate() {
+        if (!mutated && super.mutate() == this) {
+            state = new IconState(state);
+            measuredGeneration = -1;
+            mutated = true;
+        }
+        return this;
+    }
+
+    /** The state shared by the drawables created from the same constant state. */
+    static final class IconState extends ConstantState {
+
+        final Context context;
+
+        final Icon icon;
+
+        final String text;
+
+        final TextPaint paint;
+
+        int size = -1;
+
+        int alpha = 255;
+
+        boolean drawAsPath;
+
+        /** The animation, null if the icon is static. */
+        Animation animation;
+
+        /** True if the glyph fields below were read from the font. */
+        final boolean hasGlyphMetrics;
+
+        /** The top and bottom of the glyph and the width it needs, relative to the text size, y down. */
+        final float glyphTop;
+        final float glyphBottom;
+        final float glyphWidth;
+
+        /** Incremented every time the glyph must be measured again, e.g. on style change. */
+        int generation;
+
+        private final Rect textBounds = new Rect();
+
+        private int measuredHeight = -1;
+
+        IconState(Context context, Icon icon) {
+            this.context = context;
+            this.icon = icon;
+            this.text = valueOf(icon.character());
+            paint = new TextPaint();
+            paint.setTypeface(Iconify.getTypeface(context, icon));
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setTextAlign(Paint.Align.CENTER);
+            paint.setUnderlineText(false);
+            paint.setColor(Color.BLACK);
+            paint.setAntiAlias(true);
+
+            GlyphMetrics metrics = Iconify.getGlyphMetrics(context, icon);
+            int[] box = new int[4];
+            hasGlyphMetrics = metrics != null && metrics.boundingBox(icon.character(), box);
+            if (hasGlyphMetrics) {
+                float em = metrics.unitsPerEm();
+                float advance = metrics.advance(icon.character());
+                glyphTop = -box[3] / em;
+                glyphBottom = -box[1] / em;
+                // The glyph is centered on its advance, which it may overflow
+                glyphWidth = 2 * Math.max(advance / 2, Math.max(advance / 2 - box[0], box[2] - advance / 2)) / em;
+            } else {
+                glyphTop = glyphBottom = glyphWidth = 0;
+            }
+        }
+
+        IconState(IconState other) {
+            context = other.context;
+            icon = other.icon;
+            text = other.text;
+            paint = new TextPaint(other.paint);
+            size = other.size;
+            alpha = other.alpha;
+            drawAsPath = other.drawAsPath;
+            animation = other.animation;
+            hasGlyphMetrics = other.hasGlyphMetrics;
+            glyphTop = other.glyphTop;
+            glyphBottom = other.glyphBottom;
+            glyphWidth = other.glyphWidth;
+            textBounds.set(other.textBounds);
+            measuredHeight = other.measuredHeight;
+        }
+
+        /** @return The width needed by the glyph drawn at {@link #size}, at least the size. */
+        int width() {
+            if (size <= 0) return size;
+            return Math.max(size, (int) Math.ceil(size * glyphWidth));
+        }
+
+        /** @return The bounds of the glyph drawn at the given text size. */
+        Rect measure(int height) {
+            if (height != measuredHeight) {
+                paint.setTextSize(height);
+                paint.getTextBounds(text, 0, 1, textBounds);
+                measuredHeight = height;
+            }
+            return textBounds;
+        }
+
+        /** @return The outline of the glyph, shared by all the drawables of the icon. */
+        IconPathCache.Glyph glyph() {
+            return IconPathCache.get(icon, paint.getTypeface());
+        }
+
+        void invalidateMeasure() {
+            measuredHeight = -1;
+            generation++;
+        }
+
+        @Override
+        public Drawable newDrawable() {
+            return new IconDrawable(context, this);
+        }
+
+        @Override
+        public int getChangingConfigurations() {
+            return 0;
+        }
     }
 
 }
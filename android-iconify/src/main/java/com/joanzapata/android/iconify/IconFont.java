@@ -0,0 +1,89 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.content.Context;
+import android.graphics.Typeface;
+
+/**
+ * A registered icon font, with its lazily built
+ * name index and its lazily loaded typeface.
+ */
+final class IconFont {
+
+    final IconFontDescriptor descriptor;
+
+    private final TypefaceLoader typefaceLoader;
+
+    private volatile IconIndex<Icon> index;
+
+    IconFont(IconFontDescriptor descriptor) {
+        this(descriptor, null);
+    }
+
+    /** @param index The index of the icons, or null to build it when first needed. */
+    IconFont(IconFontDescriptor descriptor, IconIndex<Icon> index) {
+        this(descriptor, index, new TypefaceLoader(descriptor.ttfFileName(), descriptor.ttfChecksum()));
+    }
+
+    IconFont(IconFontDescriptor descriptor, IconIndex<Icon> index, TypefaceLoader typefaceLoader) {
+        this.descriptor = descriptor;
+        this.typefaceLoader = typefaceLoader;
+        this.index = index;
+    }
+
+    /**
+     * Resolve an icon key.
+     * @return The icon with this key, or null if there's none.
+     */
+    Icon get(CharSequence text, int start, int end) {
+        return index().get(text, start, end);
+    }
+
+    TypefaceLoader typefaceLoader() {
+        return typefaceLoader;
+    }
+
+    Typeface getTypeface(Context context) {
+        return typefaceLoader.get(context);
+    }
+
+    GlyphMetrics getGlyphMetrics(Context context) {
+        return typefaceLoader.glyphMetrics(context);
+    }
+
+    private IconIndex<Icon> index() {
+        IconIndex<Icon> result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    Icon[] icons = descriptor.characters();
+                    String[] keys = new String[icons.length];
+                    for (int i = 0; i < icons.length; i++)
+                        keys[i] = icons[i].key();
+                    index = result = new IconIndex<Icon>(keys, icons);
+                }
+            }
+        }
+        return result;
+    }
+}
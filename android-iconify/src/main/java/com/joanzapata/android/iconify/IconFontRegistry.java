@@ -0,0 +1,126 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+/**
+ * The registered icon fonts, indexed by prefix. Instances are immutable,
+ * registering a font publishes a new registry.
+ */
+final class IconFontRegistry implements IconTokenizer.Resolver {
+
+    private static volatile IconFontRegistry current =
+            new IconFontRegistry(new IconFont[]{new IconFont(Iconify.FONT_AWESOME, fontAwesomeIndex())});
+
+    private final IconFont[] fonts;
+
+    private final IconIndex<IconFont> prefixes;
+
+    private IconFontRegistry(IconFont[] fonts) {
+        this.fonts = fonts;
+        String[] names = new String[fonts.length];
+        for (int i = 0; i < fonts.length; i++)
+            names[i] = fonts[i].descriptor.prefix();
+        prefixes = new IconIndex<IconFont>(names, fonts);
+    }
+
+    /**
+     * Index of the FontAwesome icons, from the slots precomputed at build time.
+     * The table and the enum are generated from the same icons file, in the
+     * same order, which is checked since the slots rely on it.
+     */
+    private static IconIndex<Icon> fontAwesomeIndex() {
+        String[] names = FontAwesomeTable.NAMES;
+        Iconify.IconValue[] values = Iconify.IconValue.values();
+        if (values.length != names.length)
+            throw new IllegalStateException(values.length + " IconValues for " + names.length + " FontAwesomeTable names");
+        for (int i = 0; i < values.length; i++) {
+            if (!values[i].name().equals(names[i]))
+                throw new IllegalStateException("IconValue " + values[i].name() + " at the index of " + names[i]);
+        }
+        return new IconIndex<Icon>(names, values, FontAwesomeTable.SLOTS);
+    }
+
+    static IconFontRegistry get() {
+        return current;
+    }
+
+    /** Reinstall a registry returned by {@link #get()}, undoing the registrations since. */
+    static synchronized void restore(IconFontRegistry registry) {
+        current = registry;
+    }
+
+    /** Register a font, replacing the font with the same prefix if any. */
+    static void register(IconFontDescriptor descriptor) {
+        register(new IconFont(descriptor));
+    }
+
+    /** Register a font, replacing the font with the same prefix if any. */
+    static synchronized void register(IconFont font) {
+        String prefix = font.descriptor.prefix();
+        if (prefix.length() == 0 || prefix.indexOf('-') != -1 || prefix.indexOf('_') != -1)
+            throw new IllegalArgumentException("Invalid prefix: " + prefix);
+
+        IconFont[] fonts = current.fonts;
+        IconFont[] newFonts;
+        IconFont existing = current.prefixes.get(prefix, 0, prefix.length());
+        if (existing == null) {
+            newFonts = new IconFont[fonts.length + 1];
+            System.arraycopy(fonts, 0, newFonts, 0, fonts.length);
+            newFonts[fonts.length] = font;
+        } else {
+            newFonts = fonts.clone();
+            for (int i = 0; i < newFonts.length; i++)
+                if (newFonts[i] == existing) newFonts[i] = font;
+        }
+        current = new IconFontRegistry(newFonts);
+    }
+
+    /** The default font, FontAwesome. */
+    IconFont defaultFont() {
+        return fonts[0];
+    }
+
+    /**
+     * Find the font of an icon key, using its prefix.
+     * @return The font, or null if no font is registered with this prefix.
+     */
+    IconFont fontOf(CharSequence key, int start, int end) {
+        int separator = start;
+        while (separator < end) {
+            char c = key.charAt(separator);
+            if (c == '-' || c == '_') break;
+            separator++;
+        }
+        return prefixes.get(key, start, separator);
+    }
+
+    /** Resolve a name with the font of its prefix, reporting unknown names, see {@link Utils#resolve}. */
+    @Override
+    public Icon resolve(CharSequence text, int start, int end) {
+        return Utils.resolve(this, text, start, end);
+    }
+
+    /** @return The font of the given icon, or null if it's not registered. */
+    IconFont fontOf(Icon icon) {
+        String key = icon.key();
+        return fontOf(key, 0, key.length());
+    }
+}
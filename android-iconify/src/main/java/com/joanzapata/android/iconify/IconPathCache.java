@@ -0,0 +1,76 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Outlines of the glyphs drawn by the IconDrawables in path mode, converted
+ * once at a reference size and shared by all drawables. The number of
+ * entries is bounded by the number of icons of the registered fonts.
+ */
+final class IconPathCache {
+
+    /** Text size of the cached paths, scaled to the size of each drawable. */
+    static final float REFERENCE_SIZE = 256f;
+
+    private static final ConcurrentMap<Icon, Glyph> glyphs = new ConcurrentHashMap<Icon, Glyph>();
+
+    private IconPathCache() {
+        // Prevent instantiation
+    }
+
+    /** @return The outline of the given icon, horizontally centered on x = 0, on the baseline y = 0. */
+    static Glyph get(Icon icon, Typeface typeface) {
+        Glyph glyph = glyphs.get(icon);
+        if (glyph == null || glyph.typeface != typeface) {
+            glyph = new Glyph(icon, typeface);
+            glyphs.put(icon, glyph);
+        }
+        return glyph;
+    }
+
+    /** The outline of a glyph at the reference size, immutable once created. */
+    static final class Glyph {
+
+        final Typeface typeface;
+
+        final Path path = new Path();
+
+        final RectF bounds = new RectF();
+
+        Glyph(Icon icon, Typeface typeface) {
+            this.typeface = typeface;
+            Paint paint = new Paint();
+            paint.setTypeface(typeface);
+            paint.setTextSize(REFERENCE_SIZE);
+            paint.setTextAlign(Paint.Align.CENTER);
+            paint.getTextPath(String.valueOf(icon.character()), 0, 1, 0, 0, path);
+            path.computeBounds(bounds, true);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.content.Context;
+import android.text.Layout;
+import android.text.SpannedString;
+import android.text.TextPaint;
+import android.widget.TextView;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A text whose icons are already replaced by {@link IconSpan}s and measured
+ * for a given paint, so that binding a row only takes a setText().
+ * <p/>
+ * <pre>
+ *     // While prefetching a row
+ *     Future&lt;IconPrecomputedText> text = IconPrecomputedText.createInBackground(textView, raw, executor);
+ *     // When binding it
+ *     text.get().applyTo(textView);
+ *     // When it scrolls away before being bound
+ *     text.cancel(true);
+ * </pre>
+ * It's immutable and can be published to any thread once created. As with
+ * {@link Iconify#addIconSpans(TextView...)}, the TextView keeps its typeface.
+ */
+public final class IconPrecomputedText {
+
+    private final SpannedString text;
+
+    private final float textSize;
+
+    private final float width;
+
+    private IconPrecomputedText(SpannedString text, float textSize, float width) {
+        this.text = text;
+        this.textSize = textSize;
+        this.width = width;
+    }
+
+    /**
+     * Compute and measure the given text on the calling thread.
+     * @param paint The paint the text will be displayed with, not modified.
+     */
+    public static IconPrecomputedText create(Context context, CharSequence text, TextPaint paint) {
+        SpannedString computed = new SpannedString(Iconify.computeSpans(context, text));
+        // Measures the whole text, including the icons through their spans
+        TextPaint measurePaint = new TextPaint(paint);
+        float width = Layout.getDesiredWidth(computed, measurePaint);
+        return new IconPrecomputedText(computed, paint.getTextSize(), width);
+    }
+
+    /**
+     * Compute and measure the given text on the given executor, for the
+     * current paint of the given TextView, read on the calling thread.
+     * @return The text being computed, cancel it if it's not needed anymore.
+     */
+    public static Future<IconPrecomputedText> createInBackground(TextView textView, CharSequence text, Executor executor) {
+        return createInBackground(textView.getContext(), text, textView.getPaint(), executor);
+    }
+
+    /**
+     * Compute and measure the given text on the given executor.
+     * @param paint The paint the text will be displayed with, copied on the calling thread.
+     * @return The text being computed, cancel it if it's not needed anymore.
+     */
+    public static Future<IconPrecomputedText> createInBackground(Context context, final CharSequence text,
+                                                                 TextPaint paint, Executor executor) {
+        final Context appContext = context.getApplicationContext();
+        final TextPaint paintCopy = new TextPaint(paint);
+        FutureTask<IconPrecomputedText> task = new FutureTask<IconPrecomputedText>(new Callable<IconPrecomputedText>() {
+            @Override
+            public IconPrecomputedText call() {
+                return create(appContext, text, paintCopy);
+            }
+        });
+        executor.execute(task);
+        return task;
+    }
+
+    /** @return The computed text, immutable. */
+    public CharSequence getText() {
+        return text;
+    }
+
+    /** @return The text size the text was measured for. */
+    public float getTextSize() {
+        return textSize;
+    }
+
+    /** @return The width of the text on a single line, in pixels. */
+    public float getWidth() {
+        return width;
+    }
+
+    /**
+     * Set the text on the given TextView. Its icons are only measured
+     * again if the TextView has another text size.
+     */
+    public void applyTo(TextView textView) {
+        textView.setText(text);
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.util.LruCache;
+
+/**
+ * Process-wide cache of rasterized icons. Once enabled, every
+ * IconDrawable draws a cached bitmap instead of rendering its text.
+ * <p/>
+ * <pre>
+ *     IconRenderCache.enable(2 * 1024 * 1024);
+ * </pre>
+ * Bitmaps are keyed by icon, size, color, alpha, style and rendering mode,
+ * and the least recently used ones are evicted when the byte budget is
+ * exceeded. They include the parts of the glyphs overflowing the bounds,
+ * so that icons are drawn the same with and without the cache.
+ */
+public final class IconRenderCache {
+
+    private static volatile IconRenderCache instance;
+
+    private final LruCache<Key, Bitmap> bitmaps;
+
+    private IconRenderCache(int maxBytes) {
+        bitmaps = new LruCache<Key, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * Enable the cache, replacing the current one if any.
+     * @param maxBytes The maximum size of the cached bitmaps, in bytes.
+     */
+    public static void enable(int maxBytes) {
+        if (maxBytes <= 0) throw new IllegalArgumentException("maxBytes <= 0");
+        instance = new IconRenderCache(maxBytes);
+    }
+
+    /** Disable the cache, the cached bitmaps are released with it. */
+    public static void disable() {
+        instance = null;
+    }
+
+    /** @return The current cache, or null if it's not enabled. */
+    public static IconRenderCache getInstance() {
+        return instance;
+    }
+
+    /** @return The number of draws served from the cache. */
+    public int hitCount() {
+        return bitmaps.hitCount();
+    }
+
+    /** @return The number of draws that had to rasterize the icon. */
+    public int missCount() {
+        return bitmaps.missCount();
+    }
+
+    /** @return The number of bitmaps evicted to stay within the budget. */
+    public int evictionCount() {
+        return bitmaps.evictionCount();
+    }
+
+    /** @return The size of the cached bitmaps, in bytes. */
+    public int size() {
+        return bitmaps.size();
+    }
+
+    /** @return The maximum size of the cached bitmaps, in bytes. */
+    public int maxSize() {
+        return bitmaps.maxSize();
+    }
+
+    /** Release all cached bitmaps, keeping the cache enabled. */
+    public void evictAll() {
+        bitmaps.evictAll();
+    }
+
+    /**
+     * Get the bitmap of the given key, rasterizing it if needed.
+     * @param drawable The drawable to rasterize, matching the key.
+     */
+    Bitmap get(Key key, IconDrawable drawable) {
+        Bitmap bitmap = bitmaps.get(key);
+        if (bitmap == null) {
+            bitmap = Bitmap.createBitmap(key.width + 2 * key.overflowX, key.height + 2 * key.overflowY,
+                    Bitmap.Config.ARGB_8888);
+            drawable.drawIcon(new Canvas(bitmap), key.overflowX, key.overflowY);
+            bitmaps.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    /** Identifies a rasterized icon, immutable. */
+    static final class Key {
+
+        final Icon icon;
+        final int width;
+        final int height;
+        /** The margin around the bounds where the glyph overflows them, on each side. */
+        final int overflowX;
+        final int overflowY;
+        final boolean drawAsPath;
+        final int color;
+        final int alpha;
+        final Paint.Style style;
+        final float strokeWidth;
+
+        Key(Icon icon, int width, int height, int overflowX, int overflowY, boolean drawAsPath, Paint paint) {
+            this.icon = icon;
+            this.width = width;
+            this.height = height;
+            this.overflowX = overflowX;
+            this.overflowY = overflowY;
+            this.drawAsPath = drawAsPath;
+            this.color = paint.getColor();
+            this.alpha = paint.getAlpha();
+            this.style = paint.getStyle();
+            this.strokeWidth = paint.getStrokeWidth();
+        }
+
+        /** True if this key describes the given icon drawn with the given paint. */
+        boolean matches(Icon icon, int width, int height, int overflowX, int overflowY, boolean drawAsPath, Paint paint) {
+            return this.icon.equals(icon)
+                    && this.width == width
+                    && this.height == height
+                    && this.overflowX == overflowX
+                    && this.overflowY == overflowY
+                    && this.drawAsPath == drawAsPath
+                    && color == paint.getColor()
+                    && alpha == paint.getAlpha()
+                    && style == paint.getStyle()
+                    && strokeWidth == paint.getStrokeWidth();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return icon.equals(key.icon)
+                    && width == key.width
+                    && height == key.height
+                    && overflowX == key.overflowX
+                    && overflowY == key.overflowY
+                    && drawAsPath == key.drawAsPath
+                    && color == key.color
+                    && alpha == key.alpha
+                    && style == key.style
+                    && Float.compare(strokeWidth, key.strokeWidth) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = icon.hashCode();
+            result = 31 * result + width;
+            result = 31 * result + height;
+            result = 31 * result + overflowX;
+            result = 31 * result + overflowY;
+            result = 31 * result + (drawAsPath ? 1 : 0);
+            result = 31 * result + color;
+            result = 31 * result + alpha;
+            result = 31 * result + style.hashCode();
+            result = 31 * result + Float.floatToIntBits(strokeWidth);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.text.style.ReplacementSpan;
+
+import static java.lang.String.valueOf;
+
+/**
+ * Draws the icon character it covers with the typeface of its font, and the
+ * size and color of the surrounding text, which keeps its own typeface.
+ * Created by {@link Iconify#computeSpans(android.content.Context, CharSequence)}.
+ * <p/>
+ * The width of the icon is measured once per typeface and text size, and
+ * shared by all the spans of the icon.
+ */
+public class IconSpan extends ReplacementSpan {
+
+    private final Icon icon;
+
+    private final String text;
+
+    /** The typeface of the icon, null if it couldn't be loaded. */
+    private final Typeface typeface;
+
+    IconSpan(Icon icon, Typeface typeface) {
+        this.icon = icon;
+        this.text = valueOf(icon.character());
+        this.typeface = typeface;
+    }
+
+    public Icon getIcon() {
+        return icon;
+    }
+
+    @Override
+    public int getSize(Paint paint, CharSequence text, int start, int end, Paint.FontMetricsInt fm) {
+        // The line keeps the metrics of the text, icons are drawn on its baseline
+        if (fm != null) paint.getFontMetricsInt(fm);
+        return IconWidthCache.get(icon, typeface, paint);
+    }
+
+    @Override
+    public void draw(Canvas canvas, CharSequence text, int start, int end,
+                     float x, int top, int y, int bottom, Paint paint) {
+        Typeface textTypeface = paint.getTypeface();
+        paint.setTypeface(typeface);
+        canvas.drawText(this.text, x, y, paint);
+        paint.setTypeface(textTypeface);
+    }
+}
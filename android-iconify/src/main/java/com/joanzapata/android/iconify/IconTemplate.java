@@ -0,0 +1,107 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A text pattern with icons and arguments, parsed once and formatted
+ * many times, typically in list adapters.
+ * <p/>
+ * <pre>
+ *     private static final IconTemplate RATING = IconTemplate.compile("{fa-star} %s rated");
+ *     ...
+ *     textView.setText(RATING.format(count));
+ * </pre>
+ * The icons of the pattern are replaced when it's compiled, so formatting
+ * only concatenates. Arguments are inserted as is, an {@link Icon}
+ * argument is inserted as its character. Only %s and %% are supported.
+ * Templates are immutable and can be shared between threads.
+ */
+public final class IconTemplate {
+
+    /** The literals, icons already replaced, around the arguments. */
+    private final String[] literals;
+
+    private final int literalsLength;
+
+    private IconTemplate(String[] literals) {
+        this.literals = literals;
+        int length = 0;
+        for (String literal : literals)
+            length += literal.length();
+        this.literalsLength = length;
+    }
+
+    /**
+     * Parse a pattern, replacing its icons with the currently registered fonts.
+     * @throws IllegalArgumentException if the pattern contains an unsupported format.
+     */
+    public static IconTemplate compile(String pattern) {
+        List<String> literals = new ArrayList<String>();
+        StringBuilder literal = new StringBuilder();
+        int length = pattern.length();
+        for (int i = 0; i < length; i++) {
+            char c = pattern.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            char next = i + 1 < length ? pattern.charAt(i + 1) : 0;
+            if (next == '%') {
+                literal.append('%');
+            } else if (next == 's') {
+                literals.add(Utils.replaceIcons(literal).toString());
+                literal.setLength(0);
+            } else {
+                throw new IllegalArgumentException("Unsupported format at " + i + " in " + pattern);
+            }
+            i++;
+        }
+        literals.add(Utils.replaceIcons(literal).toString());
+        return new IconTemplate(literals.toArray(new String[literals.size()]));
+    }
+
+    /** @return The number of arguments expected by {@link #format(Object...)}. */
+    public int argumentCount() {
+        return literals.length - 1;
+    }
+
+    /**
+     * Format the template.
+     * @param args One argument per %s of the pattern.
+     * @return The text, ready to be set on a TextView using the icon typeface.
+     */
+    public String format(Object... args) {
+        if (args.length != argumentCount())
+            throw new IllegalArgumentException("Expected " + argumentCount() + " arguments, got " + args.length);
+        StringBuilder out = new StringBuilder(literalsLength + args.length * 16);
+        out.append(literals[0]);
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            if (arg instanceof Icon) out.append(((Icon) arg).character());
+            else out.append(arg);
+            out.append(literals[i + 1]);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.content.Context;
+import android.text.Editable;
+import android.text.TextWatcher;
+
+/**
+ * Replaces the {icon_xxx} texts of an editable text while it's typed,
+ * only looking at the edited range and the token around it, so the cost
+ * of a keystroke doesn't depend on the length of the text.
+ * <p/>
+ * <pre>
+ *     editText.addTextChangedListener(new IconTextWatcher(context));
+ * </pre>
+ * Tokens are replaced in place once their closing brace is typed, the
+ * rest of the text and its spans are left untouched. Use a watcher per
+ * text, it keeps the range of the current edit.
+ */
+public class IconTextWatcher implements TextWatcher {
+
+    /** Longer than any token, so that a boundary is never searched further. */
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    private final Context context;
+
+    private int editStart = -1;
+
+    private int editEnd;
+
+    private boolean replacing;
+
+    /**
+     * Create a watcher replacing tokens with icon characters only,
+     * for texts displayed with the typeface of the icons.
+     */
+    public IconTextWatcher() {
+        this(null);
+    }
+
+    /**
+     * Create a watcher replacing tokens with icons drawn by {@link IconSpan}s,
+     * for texts displayed with any typeface.
+     * @param context Used to load the typefaces of the icons, null for no spans.
+     */
+    public IconTextWatcher(Context context) {
+        this.context = context == null ? null : context.getApplicationContext();
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+        // Nothing to do
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {
+        if (replacing) return;
+        editStart = start;
+        editEnd = start + count;
+    }
+
+    @Override
+    public void afterTextChanged(Editable s) {
+        if (replacing || editStart == -1) return;
+        int length = s.length();
+        int start = tokenStart(s, Math.min(editStart, length));
+        int end = tokenEnd(s, Math.min(editEnd, length), length);
+        editStart = -1;
+
+        // Replacing changes the text again, which must not be watched
+        replacing = true;
+        try {
+            Utils.replaceIcons(s, start, end, context);
+        } finally {
+            replacing = false;
+        }
+    }
+
+    /** @return The start of the token containing the given index, the index if there's none. */
+    private static int tokenStart(CharSequence text, int index) {
+        for (int i = index - 1; i >= 0 && index - i <= MAX_TOKEN_LENGTH; i--) {
+            char c = text.charAt(i);
+            if (c == '{') return i;
+            if (c == '}' || Character.isWhitespace(c)) break;
+        }
+        return index;
+    }
+
+    /** @return The end of the token containing the given index, exclusive, the index if there's none. */
+    private static int tokenEnd(CharSequence text, int index, int length) {
+        for (int i = index; i < length && i - index < MAX_TOKEN_LENGTH; i++) {
+            char c = text.charAt(i);
+            if (c == '}') return i + 1;
+            if (c == '{' || Character.isWhitespace(c)) break;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.util.LruCache;
+
+/**
+ * Widths of the icons drawn by the {@link IconSpan}s, measured once per
+ * typeface and text size and shared by all spans, so that the spans of a
+ * text computed again, or of every row of a list, aren't measured again.
+ */
+final class IconWidthCache {
+
+    /** Enough for the icons of a few screens, at a few text sizes. */
+    private static final int MAX_ENTRIES = 512;
+
+    /** Synchronized, spans may be measured on background threads, see {@link IconPrecomputedText}. */
+    private static final LruCache<Key, Integer> widths = new LruCache<Key, Integer>(MAX_ENTRIES);
+
+    private IconWidthCache() {
+        // Prevent instantiation
+    }
+
+    /**
+     * @param paint The paint of the text, its typeface is restored.
+     * @return The width of the given icon drawn with the given typeface and the text size of the paint.
+     */
+    static int get(Icon icon, Typeface typeface, Paint paint) {
+        Key key = new Key(icon, typeface, paint.getTextSize());
+        Integer width = widths.get(key);
+        if (width == null) {
+            Typeface textTypeface = paint.getTypeface();
+            paint.setTypeface(typeface);
+            width = Math.round(paint.measureText(String.valueOf(icon.character())));
+            paint.setTypeface(textTypeface);
+            widths.put(key, width);
+        }
+        return width;
+    }
+
+    /** @return The number of widths served from the cache. */
+    static int hitCount() {
+        return widths.hitCount();
+    }
+
+    /** @return The number of widths that had to be measured. */
+    static int missCount() {
+        return widths.missCount();
+    }
+
+    private static final class Key {
+
+        private final Icon icon;
+
+        /** Compared by identity, null if the typeface of the icon couldn't be loaded. */
+        private final Typeface typeface;
+
+        private final float textSize;
+
+        Key(Icon icon, Typeface typeface, float textSize) {
+            this.icon = icon;
+            this.typeface = typeface;
+            this.textSize = textSize;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return icon.equals(key.icon) && typeface == key.typeface
+                    && Float.floatToIntBits(textSize) == Float.floatToIntBits(key.textSize);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = icon.hashCode();
+            result = 31 * result + System.identityHashCode(typeface);
+            return 31 * result + Float.floatToIntBits(textSize);
+        }
+    }
+}
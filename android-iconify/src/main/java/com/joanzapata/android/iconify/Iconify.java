@@ -22,71 +22,263 @@ package com.joanzapata.android.iconify;
 
 import android.content.Context;
 import android.graphics.Typeface;
+import android.text.SpannableStringBuilder;
 import android.text.Spanned;
 import android.widget.TextView;
 
-import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
-import static android.text.Html.fromHtml;
-import static android.text.Html.toHtml;
 import static com.joanzapata.android.iconify.Utils.replaceIcons;
-import static com.joanzapata.android.iconify.Utils.resourceToFile;
 import static java.lang.String.valueOf;
 
 public final class Iconify {
 
-    private static final String TTF_FILE = "fontawesome-webfont-4.1.0.ttf";
-
     public static final String TAG = Iconify.class.getSimpleName();
 
-    private static Typeface typeface = null;
+    /** The default icon font, always registered. */
+    static final IconFontDescriptor FONT_AWESOME = new IconFontDescriptor() {
+        @Override
+        public String prefix() {
+            return "fa";
+        }
+
+        @Override
+        public String ttfFileName() {
+            return FontAwesomeTable.TTF_FILE;
+        }
+
+        @Override
+        public long ttfChecksum() {
+            return FontAwesomeTable.TTF_CRC32;
+        }
+
+        @Override
+        public Icon[] characters() {
+            return IconValue.values();
+        }
+    };
+
+    /** The installed metrics, null most of the time. */
+    static volatile IconMetrics metrics;
+
+    /**
+     * Runs each preloading on a daemon thread of its own. The loading is a
+     * single short task per font, submitted once, so it doesn't need a pool.
+     */
+    private static final Executor PRELOAD_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            Thread thread = new Thread(command, "Iconify-preload");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    };
 
     private Iconify() {
         // Prevent instantiation
     }
 
+    /**
+     * Install the metrics receiving the counts and latencies of Iconify,
+     * or remove them with null. Nothing is measured without metrics.
+     */
+    public static void setMetrics(IconMetrics metrics) {
+        Iconify.metrics = metrics;
+    }
+
+    /**
+     * Register an icon font, so that its icons can be used in texts
+     * and drawables. It replaces the font registered with the same
+     * prefix if any. The font is only loaded when it's first used.
+     */
+    public static void with(IconFontDescriptor descriptor) {
+        IconFontRegistry.register(descriptor);
+    }
+
     /**
      * Transform the given TextViews replacing {icon_xxx} texts with icons.
+     * The TextViews use the typeface of the first icon of their text.
+     * The text of a TextView is only set again if it contains icons.
      */
     public static final void addIcons(TextView... textViews) {
         for (TextView textView : textViews) {
-            textView.setTypeface(getTypeface(textView.getContext()));
-            textView.setText(compute(textView.getText()));
+            CharSequence text = textView.getText();
+            IconFont font = Utils.firstFont(text);
+            if (font == null) font = IconFontRegistry.get().defaultFont();
+            textView.setTypeface(font.getTypeface(textView.getContext()));
+            CharSequence computed = compute(text);
+            if (computed != text) textView.setText(computed);
         }
     }
 
+    /**
+     * Transform the given TextViews replacing {icon_xxx} texts with icons
+     * drawn by {@link IconSpan}s. Unlike {@link #addIcons(TextView...)}, the
+     * typeface of the TextViews is kept for the rest of the text, and icons
+     * of several fonts can be mixed.
+     */
+    public static void addIconSpans(TextView... textViews) {
+        for (TextView textView : textViews) {
+            CharSequence text = textView.getText();
+            CharSequence computed = computeSpans(textView.getContext(), text);
+            if (computed != text) textView.setText(computed);
+        }
+    }
+
+    /**
+     * Replace the {icon_xxx} texts of the given text with icons, each covered
+     * by an {@link IconSpan} drawing it with the typeface of its font. The text
+     * can then be displayed with any typeface. The result isn't cached.
+     * A text without any '{' followed by a '}' is returned as is.
+     * @param context Used to load the typefaces on the calling thread if needed.
+     */
+    public static CharSequence computeSpans(Context context, CharSequence charSequence) {
+        if (!IconTokenizer.mayContainIcons(charSequence)) return charSequence;
+        IconMetrics metrics = Iconify.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        CharSequence result = Utils.replaceIconsWithSpans(new SpannableStringBuilder(charSequence), context);
+        if (metrics != null) metrics.onCompute(charSequence.length(), System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Replace the {icon_xxx} texts of the given text with icons.
+     * The spans of a Spanned text are kept and shifted along with the text.
+     * The result is cached if {@link IconComputeCache} is enabled.
+     * A text without any '{' followed by a '}' is returned as is.
+     */
     public static CharSequence compute(CharSequence charSequence) {
+        IconMetrics metrics = Iconify.metrics;
+        if (metrics == null) return computeCached(charSequence);
+        long start = System.nanoTime();
+        CharSequence result = computeCached(charSequence);
+        metrics.onCompute(charSequence.length(), System.nanoTime() - start);
+        return result;
+    }
+
+    private static CharSequence computeCached(CharSequence charSequence) {
+        if (!IconTokenizer.mayContainIcons(charSequence)) return charSequence;
+        IconComputeCache cache = IconComputeCache.getInstance();
+        if (cache != null) return cache.compute(charSequence);
+        return computeUncached(charSequence);
+    }
+
+    static CharSequence computeUncached(CharSequence charSequence) {
         if (charSequence instanceof Spanned) {
-            String text = toHtml((Spanned) charSequence);
-            return fromHtml(replaceIcons(new StringBuilder((text))).toString());
+            return replaceIcons(new SpannableStringBuilder(charSequence));
         }
         String text = charSequence.toString();
         return replaceIcons(new StringBuilder(text));
     }
 
-    public static final void setIcon(TextView textView, IconValue value) {
-        textView.setTypeface(getTypeface(textView.getContext()));
-        textView.setText(valueOf(value.character));
+    public static final void setIcon(TextView textView, Icon value) {
+        textView.setTypeface(getTypeface(textView.getContext(), value));
+        textView.setText(valueOf(value.character()));
     }
 
     /**
-     * The typeface that contains FontAwesome icons.
+     * The typeface that contains FontAwesome icons. It's loaded on the calling
+     * thread the first time, unless {@link #preload(Context)} was called before,
+     * in which case this waits for the background loading to complete.
      *
      * @return the typeface, or null if something goes wrong.
      */
     public static final Typeface getTypeface(Context context) {
-        if (typeface == null) {
-            try {
-                typeface = Typeface.createFromFile(resourceToFile(context, TTF_FILE));
-            } catch (IOException e) {
-                return null;
-            }
-        }
-        return typeface;
+        return IconFontRegistry.get().defaultFont().getTypeface(context);
+    }
+
+    /**
+     * The typeface that contains the given icon.
+     *
+     * @return the typeface, or null if something goes wrong.
+     */
+    public static final Typeface getTypeface(Context context, Icon icon) {
+        return fontOf(icon).getTypeface(context);
+    }
+
+    /**
+     * The typeface of the first icon of the given text, before its {icon_xxx}
+     * texts are replaced.
+     *
+     * @return the typeface, or null if the text has no icon or if something goes wrong.
+     */
+    public static Typeface getTypeface(Context context, CharSequence text) {
+        IconFont font = Utils.firstFont(text);
+        return font == null ? null : font.getTypeface(context);
+    }
+
+    /**
+     * The metrics of the glyphs of the font that contains the given icon.
+     *
+     * @return the metrics, or null if something goes wrong.
+     */
+    static GlyphMetrics getGlyphMetrics(Context context, Icon icon) {
+        return fontOf(icon).getGlyphMetrics(context);
+    }
+
+    /**
+     * Start loading the typeface in the background, typically in
+     * Application.onCreate(), so that the first views using icons
+     * don't have to wait for it on the UI thread.
+     *
+     * The loading runs on a daemon thread of its own, started once per font.
+     *
+     * @return the typeface loading, which fails if something goes wrong.
+     */
+    public static Future<Typeface> preload(Context context) {
+        return preload(context, PRELOAD_EXECUTOR);
+    }
+
+    /**
+     * Start loading the typeface on the given executor, e.g. the
+     * application's background executor.
+     *
+     * @return the typeface loading, which fails if something goes wrong.
+     */
+    public static Future<Typeface> preload(Context context, Executor executor) {
+        return IconFontRegistry.get().defaultFont().typefaceLoader().preload(context, executor);
     }
 
-    public static enum IconValue {
+    /**
+     * Start loading the typeface of a registered font in the background.
+     *
+     * @return the typeface loading, which fails if something goes wrong.
+     */
+    public static Future<Typeface> preload(Context context, IconFontDescriptor descriptor) {
+        return preload(context, descriptor, PRELOAD_EXECUTOR);
+    }
+
+    /**
+     * Start loading the typeface of a registered font on the given executor.
+     *
+     * @return the typeface loading, which fails if something goes wrong.
+     */
+    public static Future<Typeface> preload(Context context, IconFontDescriptor descriptor, Executor executor) {
+        String prefix = descriptor.prefix();
+        IconFont font = IconFontRegistry.get().fontOf(prefix, 0, prefix.length());
+        if (font == null) throw new IllegalArgumentException("Font not registered: " + prefix);
+        return font.typefaceLoader().preload(context, executor);
+    }
 
+    /**
+     * The typeface that contains FontAwesome icons, if already loaded.
+     *
+     * @return the typeface, or null if it's not loaded yet.
+     */
+    public static Typeface peekTypeface() {
+        return IconFontRegistry.get().defaultFont().typefaceLoader().peek();
+    }
+
+    private static IconFont fontOf(Icon icon) {
+        IconFont font = IconFontRegistry.get().fontOf(icon);
+        if (font == null) throw new IllegalArgumentException("Font not registered for " + icon.key());
+        return font;
+    }
+
+    public static enum IconValue implements Icon {
+
+        // Generated icons from fontawesome-webfont-4.1.0.icons, do not edit
         fa_adjust('\uf042'),
         fa_adn('\uf170'),
         fa_align_center('\uf037'),
@@ -590,6 +782,7 @@ public final class Iconify {
         fa_youtube('\uf167'),
         fa_youtube_play('\uf16a'),
         fa_youtube_square('\uf166');
+        // End of generated icons
 
         char character;
 
@@ -601,6 +794,12 @@ public final class Iconify {
             return "{" + name() + "}";
         }
 
+        @Override
+        public String key() {
+            return name();
+        }
+
+        @Override
         public char character() {
             return character;
         }
@@ -0,0 +1,170 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import static com.joanzapata.android.iconify.Utils.readChecksum;
+import static com.joanzapata.android.iconify.Utils.resourceToFile;
+import static com.joanzapata.android.iconify.Utils.subsetName;
+
+/**
+ * Loads the typeface of a TTF resource once, either on the calling
+ * thread or in the background, and safely publishes it to all threads.
+ * A failed load is forgotten so that the next call tries again.
+ * The subset of the font generated at build time is preferred if any.
+ * The metrics of its glyphs are read along with it.
+ */
+class TypefaceLoader {
+
+    private final String ttfFile;
+
+    private final long crc32;
+
+    private volatile Typeface typeface;
+
+    /** Null if they couldn't be read. */
+    private volatile GlyphMetrics glyphMetrics;
+
+    /** Guarded by this. */
+    private FutureTask<Typeface> task;
+
+    /** True if the task was handed to an executor, guarded by this. */
+    private boolean submitted;
+
+    TypefaceLoader(String ttfFile, long crc32) {
+        this.ttfFile = ttfFile;
+        this.crc32 = crc32;
+    }
+
+    /**
+     * Get the typeface, loading it on the calling thread if needed.
+     * If it's being loaded in the background, wait for it instead.
+     * @return the typeface, or null if something goes wrong.
+     */
+    Typeface get(Context context) {
+        Typeface result = typeface;
+        if (result != null) return result;
+
+        FutureTask<Typeface> task = task(context);
+        // Does nothing if the task is already running or done
+        task.run();
+        return await(task);
+    }
+
+    /**
+     * Get the metrics of the glyphs, loading the typeface on the calling thread if needed.
+     * @return the metrics, or null if something goes wrong.
+     */
+    GlyphMetrics glyphMetrics(Context context) {
+        GlyphMetrics result = glyphMetrics;
+        if (result != null) return result;
+        get(context);
+        return glyphMetrics;
+    }
+
+    /** @return the typeface if it's already loaded, null otherwise. */
+    Typeface peek() {
+        return typeface;
+    }
+
+    /**
+     * Start loading the typeface on the given executor if it's not loaded yet.
+     * The loading is submitted once, however many times this is called.
+     */
+    Future<Typeface> preload(Context context, Executor executor) {
+        FutureTask<Typeface> task;
+        boolean submit;
+        synchronized (this) {
+            task = task(context);
+            submit = !submitted && !task.isDone();
+            submitted = true;
+        }
+        if (submit) executor.execute(task);
+        return task;
+    }
+
+    private synchronized FutureTask<Typeface> task(Context context) {
+        if (task == null) {
+            final Context appContext = context.getApplicationContext();
+            task = new FutureTask<Typeface>(new Callable<Typeface>() {
+                @Override
+                public Typeface call() throws Exception {
+                    long start = System.nanoTime();
+                    File file = extract(appContext);
+                    if (file == null) throw new IllegalStateException("Unable to extract " + ttfFile);
+                    try {
+                        glyphMetrics = GlyphMetrics.read(file);
+                    } catch (IOException e) {
+                        // Icons are measured as text instead
+                        Log.w(Iconify.TAG, "Unable to read the metrics of " + ttfFile, e);
+                    }
+                    typeface = createTypeface(file);
+                    IconMetrics metrics = Iconify.metrics;
+                    if (metrics != null) metrics.onTypefaceLoaded(ttfFile, System.nanoTime() - start);
+                    return typeface;
+                }
+            });
+        }
+        return task;
+    }
+
+    /** Overridden by the tests, which can't create typefaces from files. */
+    Typeface createTypeface(File file) {
+        return Typeface.createFromFile(file);
+    }
+
+    /** Extract the subset of the font if it's on the classpath, the whole font otherwise. */
+    private File extract(Context context) throws IOException {
+        String subset = subsetName(ttfFile);
+        long subsetCrc32 = readChecksum(subset);
+        if (subsetCrc32 != -1) return resourceToFile(context, subset, subsetCrc32);
+        return resourceToFile(context, ttfFile, crc32);
+    }
+
+    private Typeface await(FutureTask<Typeface> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            Log.e(Iconify.TAG, "Unable to load " + ttfFile, e.getCause());
+            synchronized (this) {
+                if (this.task == task) {
+                    this.task = null;
+                    submitted = false;
+                }
+            }
+            return null;
+        }
+    }
+}
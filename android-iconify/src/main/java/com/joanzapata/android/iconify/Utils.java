@@ -22,22 +22,30 @@ package com.joanzapata.android.iconify;
 
 import android.R;
 import android.content.Context;
+import android.graphics.Typeface;
+import android.text.Editable;
+import android.text.Spanned;
 import android.util.Log;
 
-import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
 import static android.util.TypedValue.*;
-import static com.joanzapata.android.iconify.Iconify.IconValue;
+import static com.joanzapata.android.iconify.IconTokenizer.isTokenStart;
+import static com.joanzapata.android.iconify.IconTokenizer.tokenEnd;
 
 class Utils {
 
     public static final String ICON_FONT_FOLDER = "icon_tmp";
 
+    private static final int BUFFER_SIZE = 8192;
+
     private Utils() {
         // Prevents instantiation
     }
@@ -54,33 +62,125 @@ class Utils {
         return false;
     }
 
-    static File resourceToFile(Context context, String resourceName) throws IOException {
+    /**
+     * Extract the given classpath resource to a file, once. The file is written under
+     * a temporary name, checked against the expected checksum and only then renamed
+     * to its final name, so an existing file is always complete. The files extracted
+     * for other versions of the resource are deleted, those of other resources are kept.
+     * @param crc32 The expected CRC32 of the resource.
+     * @return The extracted file, or null if the folder can't be created.
+     */
+    static File resourceToFile(Context context, String resourceName, long crc32) throws IOException {
         File f = new File(context.getFilesDir(), ICON_FONT_FOLDER);
         if (!f.exists()) {
             if (!f.mkdirs()) {
                 return null;
             }
         }
-        File outPath = new File(f, resourceName);
+        File outPath = new File(f, versionedName(resourceName, crc32));
         if (outPath.exists()) return outPath;
 
-        BufferedOutputStream bos = null;
-        InputStream inputStream = null;
+        File tmpPath = File.createTempFile(resourceName, ".tmp", f);
+        FileOutputStream fos = null;
+        CheckedInputStream inputStream = null;
         try {
-            inputStream = Iconify.class.getClassLoader().getResourceAsStream(resourceName);
-            byte[] buffer = new byte[inputStream.available()];
-            bos = new BufferedOutputStream(new FileOutputStream(outPath));
-            int l = 0;
-            while ((l = inputStream.read(buffer)) > 0) {
-                bos.write(buffer, 0, l);
+            InputStream resource = Iconify.class.getClassLoader().getResourceAsStream(resourceName);
+            if (resource == null) throw new FileNotFoundException(resourceName);
+            inputStream = new CheckedInputStream(resource, new CRC32());
+            fos = new FileOutputStream(tmpPath);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int l;
+            while ((l = inputStream.read(buffer)) != -1) {
+                fos.write(buffer, 0, l);
             }
-            return outPath;
+            fos.getFD().sync();
+            fos.close();
+            fos = null;
+
+            long actual = inputStream.getChecksum().getValue();
+            if (actual != crc32)
+                throw new IOException("Wrong checksum for " + resourceName + ": " + Long.toHexString(actual));
+            if (!tmpPath.renameTo(outPath) && !outPath.exists())
+                throw new IOException("Unable to rename " + tmpPath + " to " + outPath);
         } finally {
-            closeQuietly(bos);
+            closeQuietly(fos);
             closeQuietly(inputStream);
+            tmpPath.delete();
+        }
+
+        deleteStaleFiles(f, resourceName, outPath);
+        return outPath;
+    }
+
+    /** fontawesome-webfont-4.1.0.ttf becomes fontawesome-webfont-4.1.0.subset.ttf */
+    static String subsetName(String resourceName) {
+        int extension = extensionIndex(resourceName);
+        return resourceName.substring(0, extension) + ".subset" + resourceName.substring(extension);
+    }
+
+    /**
+     * Read the CRC32 that accompanies a generated resource, in hexadecimal
+     * in the resource of the same name followed by ".crc32".
+     * @return The CRC32, or -1 if there's no such resource.
+     */
+    static long readChecksum(String resourceName) throws IOException {
+        InputStream in = Iconify.class.getClassLoader().getResourceAsStream(resourceName + ".crc32");
+        if (in == null) return -1;
+        try {
+            StringBuilder hex = new StringBuilder();
+            int c;
+            while ((c = in.read()) != -1) hex.append((char) c);
+            return Long.parseLong(hex.toString().trim(), 16);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid checksum for " + resourceName);
+        } finally {
+            closeQuietly(in);
         }
     }
 
+    /** fontawesome-webfont-4.1.0.ttf becomes fontawesome-webfont-4.1.0-b6469d24.ttf */
+    static String versionedName(String resourceName, long crc32) {
+        int extension = extensionIndex(resourceName);
+        return resourceName.substring(0, extension) + '-' + Long.toHexString(crc32)
+                + resourceName.substring(extension);
+    }
+
+    /** @return The index of the extension of the given file name, its length if it has none. */
+    private static int extensionIndex(String fileName) {
+        int extension = fileName.lastIndexOf('.');
+        return extension == -1 ? fileName.length() : extension;
+    }
+
+    /**
+     * Delete the files extracted for other checksums of the given resource,
+     * see {@link #versionedName}, and its leftover temporary files.
+     */
+    private static void deleteStaleFiles(File folder, String resourceName, File keep) {
+        File[] files = folder.listFiles();
+        if (files == null) return;
+        int extension = extensionIndex(resourceName);
+        String prefix = resourceName.substring(0, extension) + '-';
+        String suffix = resourceName.substring(extension);
+        for (File file : files) {
+            String name = file.getName();
+            boolean stale = name.startsWith(prefix) && name.endsWith(suffix)
+                    && isHex(name, prefix.length(), name.length() - suffix.length());
+            boolean temporary = name.startsWith(resourceName) && name.endsWith(".tmp");
+            if ((stale || temporary) && !file.equals(keep) && !file.delete()) {
+                Log.w(Iconify.TAG, "Unable to delete " + file);
+            }
+        }
+    }
+
+    private static boolean isHex(String s, int start, int end) {
+        if (start >= end) return false;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) return false;
+        }
+        return true;
+    }
+
     private static void closeQuietly(Closeable closeable) {
         if (closeable != null) {
             try {
@@ -91,27 +191,128 @@ class Utils {
         }
     }
 
+    /**
+     * Replace the {fa-xxx} tokens of the given text with their icon character,
+     * the tokens of the other registered fonts are replaced as well.
+     * @param text The text to process, not modified.
+     * @return The given text if it contains no token, a new builder otherwise.
+     * @see IconTokenizer#replaceIcons(StringBuilder, IconTokenizer.Resolver, IconMetrics)
+     */
     public static StringBuilder replaceIcons(StringBuilder text) {
-        int startIndex = text.indexOf("{fa");
-        if (startIndex == -1) {
-            return text;
-        }
+        return IconTokenizer.replaceIcons(text, IconFontRegistry.get(), Iconify.metrics);
+    }
 
-        int endIndex = text.substring(startIndex).indexOf("}") + startIndex + 1;
+    /**
+     * Replace the {fa-xxx} tokens of the given text with their icon character,
+     * in place. The existing spans are kept and shifted along with the text.
+     * @param text The text to process.
+     * @return The given text.
+     */
+    public static <T extends Editable> T replaceIcons(T text) {
+        return replaceIcons(text, 0, text.length(), null);
+    }
 
-        String iconString = text.substring(startIndex + 1, endIndex - 1);
-        iconString = iconString.replaceAll("-", "_");
-        try {
+    /**
+     * Replace the {fa-xxx} tokens of the given text with their icon character
+     * covered by an {@link IconSpan}, in place, so that the icons are drawn
+     * with their own typeface whatever the typeface of the text.
+     * @param text The text to process.
+     * @return The given text.
+     */
+    static <T extends Editable> T replaceIconsWithSpans(T text, Context context) {
+        return replaceIcons(text, 0, text.length(), context);
+    }
 
-            IconValue value = IconValue.valueOf(iconString);
-            String iconValue = String.valueOf(value.character);
+    /**
+     * Replace the tokens of a range of the given text, in place.
+     * @param from    The start of the range, inclusive.
+     * @param to      The end of the range, exclusive, tokens must end before it.
+     * @param context The context to load the typefaces of the spans, null for no spans.
+     */
+    static <T extends Editable> T replaceIcons(T text, int from, int to, Context context) {
+        IconFontRegistry registry = IconFontRegistry.get();
+        int length = to;
+        int resolved = 0;
+        int i = from;
+        while (i < length) {
+            if (!isTokenStart(text, i, length)) {
+                i++;
+                continue;
+            }
 
-            text = text.replace(startIndex, endIndex, iconValue);
-            return replaceIcons(text);
+            int end = tokenEnd(text, i, length);
+            if (end < 0) {
+                i = ~end;
+                continue;
+            }
 
-        } catch (IllegalArgumentException e) {
-            Log.w(Iconify.TAG, "Wrong icon name: " + iconString);
-            return text;
+            Icon icon = resolve(registry, text, i + 1, end);
+            if (icon != null) {
+                Typeface typeface = context == null ? null
+                        : registry.fontOf(text, i + 1, end).getTypeface(context);
+                text.replace(i, end + 1, String.valueOf(icon.character()));
+                if (context != null)
+                    text.setSpan(new IconSpan(icon, typeface), i, i + 1, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+                length -= end - i;
+                resolved++;
+                i++;
+            } else {
+                i = end + 1;
+            }
+        }
+        reportResolved(resolved);
+        return text;
+    }
+
+    /**
+     * Resolve the icon of a token, using the font registered with its prefix.
+     * Names of unknown prefixes are ignored, so that other texts between braces
+     * aren't reported, while unknown names of a known prefix are logged and
+     * reported to the metrics.
+     * @return The icon, or null if there's none.
+     */
+    static Icon resolve(IconFontRegistry registry, CharSequence text, int start, int end) {
+        IconFont font = registry.fontOf(text, start, end);
+        if (font == null) return null;
+        Icon icon = font.get(text, start, end);
+        if (icon == null) {
+            String name = text.subSequence(start, end).toString();
+            Warnings.warn("Wrong icon name: " + name);
+            IconMetrics metrics = Iconify.metrics;
+            if (metrics != null) metrics.onUnknownIcon(name);
+        }
+        return icon;
+    }
+
+    private static void reportResolved(int resolved) {
+        if (resolved == 0) return;
+        IconMetrics metrics = Iconify.metrics;
+        if (metrics != null) metrics.onIconsResolved(resolved);
+    }
+
+    /**
+     * Find the font of the first icon of the given text.
+     * @return The font, or null if the text contains no icon of a registered font.
+     */
+    static IconFont firstFont(CharSequence text) {
+        if (!IconTokenizer.mayContainIcons(text)) return null;
+        IconFontRegistry registry = IconFontRegistry.get();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (!isTokenStart(text, i, length)) {
+                i++;
+                continue;
+            }
+            int end = tokenEnd(text, i, length);
+            if (end < 0) {
+                i = ~end;
+                continue;
+            }
+            IconFont font = registry.fontOf(text, i + 1, end);
+            if (font != null && font.get(text, i + 1, end) != null) return font;
+            i = end + 1;
         }
+        return null;
     }
 }
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.util.Log;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs warnings without flooding the log, when the same bad icon name
+ * is computed again and again in list rows: within a period, a message
+ * is only logged once, and at most a few distinct messages are logged.
+ * The number of suppressed warnings is appended to the next one logged.
+ */
+final class Warnings {
+
+    private static final Warnings INSTANCE = new Warnings(10, TimeUnit.MINUTES.toNanos(1));
+
+    private final int maxPerPeriod;
+
+    private final long periodNanos;
+
+    /** Guarded by this, the messages logged during the current period. */
+    private final Set<String> logged = new HashSet<String>();
+
+    /** Guarded by this. */
+    private long periodStart;
+
+    /** Guarded by this, the number of warnings suppressed since the last one logged. */
+    private int suppressed;
+
+    Warnings(int maxPerPeriod, long periodNanos) {
+        this.maxPerPeriod = maxPerPeriod;
+        this.periodNanos = periodNanos;
+    }
+
+    /** Log a warning, unless it was logged recently or too many were. */
+    static void warn(String message) {
+        int suppressed = INSTANCE.admit(message, System.nanoTime());
+        if (suppressed == 0) Log.w(Iconify.TAG, message);
+        else if (suppressed > 0) Log.w(Iconify.TAG, message + " (" + suppressed + " warnings suppressed before)");
+    }
+
+    /**
+     * @return -1 if the message must be suppressed, otherwise the number
+     * of warnings suppressed since the last one logged.
+     */
+    synchronized int admit(String message, long nowNanos) {
+        if (!logged.isEmpty() && nowNanos - periodStart >= periodNanos) logged.clear();
+        if (logged.isEmpty()) periodStart = nowNanos;
+        if (logged.size() >= maxPerPeriod || !logged.add(message)) {
+            suppressed++;
+            return -1;
+        }
+        int result = suppressed;
+        suppressed = 0;
+        return result;
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.joanzapata.android.iconify.Iconify.IconValue.fa_adjust;
+import static com.joanzapata.android.iconify.Iconify.IconValue.fa_adn;
+import static com.joanzapata.android.iconify.Iconify.IconValue.fa_align_center;
+import static com.joanzapata.android.iconify.Iconify.IconValue.fa_camera;
+import static com.joanzapata.android.iconify.Iconify.IconValue.fa_star;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class IconAtlasTest {
+
+    @Test
+    public void test_cells() {
+        IconAtlas atlas = IconAtlas.create(Robolectric.application,
+                Arrays.asList(fa_adn, fa_adjust, fa_adn, fa_align_center), 32, Color.BLACK);
+        assertTrue(atlas.contains(fa_adjust));
+        assertFalse(atlas.contains(fa_star));
+
+        Rect adn = new Rect();
+        Rect alignCenter = new Rect();
+        Bitmap page = atlas.cell(fa_adn, adn);
+        assertSame(page, atlas.cell(fa_align_center, alignCenter));
+        // 32px icons and their padding
+        assertEquals(new Rect(0, 0, 34, 34), adn);
+        assertEquals(new Rect(68, 0, 102, 34), alignCenter);
+        assertNull(atlas.cell(fa_star, adn));
+    }
+
+    @Test
+    public void test_wideGlyph() {
+        // 1920 units wide for an em of 1792
+        IconAtlas atlas = IconAtlas.create(Robolectric.application, Arrays.asList(fa_camera, fa_adn), 32, Color.BLACK);
+        Rect camera = new Rect();
+        Rect adn = new Rect();
+        atlas.cell(fa_camera, camera);
+        atlas.cell(fa_adn, adn);
+        int width = new IconDrawable(Robolectric.application, fa_camera).sizePx(32).getIntrinsicWidth();
+        assertTrue(width > 32);
+        assertEquals(new Rect(0, 0, width + 2, 34), camera);
+        assertEquals(new Rect(width + 2, 0, width + 36, 34), adn);
+    }
+
+    @Test
+    public void test_drawable_wideGlyph() {
+        IconAtlas atlas = IconAtlas.create(Robolectric.application, Arrays.asList(fa_camera), 32, Color.BLACK);
+        AtlasIconDrawable drawable = new AtlasIconDrawable(Robolectric.application, fa_camera, 32, Color.BLACK);
+        int width = new IconDrawable(Robolectric.application, fa_camera).sizePx(32).getIntrinsicWidth();
+        assertEquals(width, drawable.getIntrinsicWidth());
+        assertEquals(32, drawable.getIntrinsicHeight());
+        assertEquals(new Rect(0, 0, width, 32), drawable.getBounds());
+
+        // The whole cell is drawn, unscaled
+        RecordingCanvas canvas = new RecordingCanvas();
+        drawable.atlas(atlas).draw(canvas);
+        assertEquals(new RectF(-1, -1, width + 1, 33), canvas.destination);
+    }
+
+    @Test
+    public void test_pages() {
+        // 1 icon of 1024px and its padding per page
+        IconAtlas atlas = IconAtlas.create(Robolectric.application,
+                Arrays.asList(fa_adn, fa_adjust, fa_align_center), 1024, Color.BLACK);
+        Rect source = new Rect();
+        Bitmap first = atlas.cell(fa_adn, source);
+        Bitmap second = atlas.cell(fa_align_center, source);
+        assertNotSame(first, second);
+        assertEquals(new Rect(0, 0, 1026, 1026), source);
+        assertEquals(1026, second.getWidth());
+    }
+
+    @Test
+    public void test_rows() {
+        // Several rows of cells of various widths
+        List<Icon> icons = new ArrayList<Icon>(Arrays.<Icon>asList(Iconify.IconValue.values()).subList(0, 200));
+        IconAtlas atlas = IconAtlas.create(Robolectric.application, icons, 32, Color.BLACK);
+        Rect previous = new Rect();
+        Rect source = new Rect();
+        Bitmap page = atlas.cell(icons.get(0), previous);
+        for (Icon icon : icons.subList(1, icons.size())) {
+            assertSame(page, atlas.cell(icon, source));
+            assertTrue(source.right <= IconAtlas.MAX_PAGE_SIZE);
+            assertFalse(Rect.intersects(previous, source));
+            previous.set(source);
+        }
+    }
+
+    @Test
+    public void test_recycle_fallsBack() {
+        IconAtlas atlas = IconAtlas.create(Robolectric.application, Arrays.asList(fa_adn), 16, Color.BLACK);
+        AtlasIconDrawable drawable = new AtlasIconDrawable(Robolectric.application, fa_adn, 16, Color.BLACK).atlas(atlas);
+        RecordingCanvas canvas = new RecordingCanvas();
+        drawable.draw(canvas);
+        assertNotNull(canvas.bitmap);
+        assertEquals(0, canvas.texts);
+
+        atlas.recycle();
+        assertTrue(atlas.isRecycled());
+        assertEquals(0, atlas.byteCount());
+        assertNull(atlas.cell(fa_adn, new Rect()));
+
+        // Drawn as an IconDrawable
+        canvas.bitmap = null;
+        drawable.draw(canvas);
+        assertNull(canvas.bitmap);
+        assertEquals(1, canvas.texts);
+    }
+
+    private static class RecordingCanvas extends Canvas {
+
+        Bitmap bitmap;
+
+        RectF destination;
+
+        int texts;
+
+        RecordingCanvas() {
+            super(Bitmap.createBitmap(16, 16, Bitmap.Config.ARGB_8888));
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+            this.bitmap = bitmap;
+            destination = new RectF(dst);
+        }
+
+        @Override
+        public void drawText(String text, float x, float y, Paint paint) {
+            texts++;
+        }
+    }
+}
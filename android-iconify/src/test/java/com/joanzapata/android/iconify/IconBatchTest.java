@@ -0,0 +1,123 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class IconBatchTest {
+
+    private static final int THREADS = 8;
+
+    private ExecutorService executor;
+
+    private IconFontRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = IconFontRegistry.get();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        IconComputeCache.disable();
+        IconFontRegistry.restore(registry);
+    }
+
+    @Test
+    public void test_compute_inOrder() throws InterruptedException {
+        List<String> texts = texts(1000);
+        IconBatch.Result result = IconBatch.compute(texts, executor, 7);
+
+        assertEquals(143, result.chunkCount());
+        assertEquals(texts.size(), result.texts().size());
+        for (int i = 0; i < texts.size(); i++)
+            assertEquals(Iconify.compute(texts.get(i)).toString(), result.texts().get(i).toString());
+    }
+
+    @Test
+    public void test_compute_withCache() throws InterruptedException {
+        IconComputeCache.enable(10);
+        List<String> texts = texts(500);
+        IconBatch.Result result = IconBatch.compute(texts, executor, 3);
+
+        for (int i = 0; i < texts.size(); i++)
+            assertEquals(Iconify.compute(texts.get(i)).toString(), result.texts().get(i).toString());
+    }
+
+    @Test
+    public void test_compute_empty() throws InterruptedException {
+        IconBatch.Result result = IconBatch.compute(Collections.<String>emptyList(), executor);
+        assertEquals(0, result.chunkCount());
+        assertEquals(0, result.texts().size());
+    }
+
+    /** Threads racing on the first use of a font, whose index is built lazily. */
+    @Test
+    public void test_compute_newFontConcurrently() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            Iconify.with(new TestFont("batch", '\ue00a'));
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        start.await();
+                        return Iconify.compute("{batch-a}{fa-adn}").toString();
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results)
+                assertEquals("\ue00a\uf170", result.get());
+        }
+    }
+
+    private static List<String> texts(int count) {
+        Iconify.IconValue[] values = Iconify.IconValue.values();
+        List<String> texts = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            Iconify.IconValue value = values[i % values.length];
+            texts.add("Message " + i + " {" + value.name().replace('_', '-') + "} {fa-unknown} {" + value.name());
+        }
+        return texts;
+    }
+}
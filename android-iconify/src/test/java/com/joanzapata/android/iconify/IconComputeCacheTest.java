@@ -0,0 +1,123 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.graphics.Typeface;
+import android.text.SpannableString;
+import android.text.Spanned;
+import android.text.style.StyleSpan;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.joanzapata.android.iconify.Iconify.IconValue.fa_adn;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class IconComputeCacheTest {
+
+    private IconComputeCache cache;
+
+    @Before
+    public void setUp() {
+        IconComputeCache.enable(10);
+        cache = IconComputeCache.getInstance();
+    }
+
+    @After
+    public void tearDown() {
+        IconComputeCache.disable();
+    }
+
+    @Test
+    public void test_compute_hit() {
+        CharSequence first = Iconify.compute("A{fa-adn}");
+        CharSequence second = Iconify.compute(new StringBuilder("A{fa-adn}"));
+
+        assertEquals("A" + fa_adn.character, first.toString());
+        assertSame(first, second);
+        assertEquals(1, cache.missCount());
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    public void test_compute_spansAreKeys() {
+        SpannableString text = new SpannableString("A{fa-adn}");
+        text.setSpan(new StyleSpan(Typeface.BOLD), 0, 1, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+
+        CharSequence styled = Iconify.compute(text);
+        CharSequence plain = Iconify.compute("A{fa-adn}");
+
+        assertTrue(styled instanceof Spanned);
+        assertEquals(1, ((Spanned) styled).getSpans(0, 1, StyleSpan.class).length);
+        assertEquals(plain.toString(), styled.toString());
+        assertEquals(2, cache.missCount());
+        assertEquals(styled.toString(), Iconify.compute(text).toString());
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    public void test_compute_rebuiltSpannedHits() {
+        StyleSpan firstSpan = new StyleSpan(Typeface.BOLD);
+        SpannableString first = new SpannableString("{fa-adn}A");
+        first.setSpan(firstSpan, 8, 9, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        Iconify.compute(first);
+
+        StyleSpan secondSpan = new StyleSpan(Typeface.BOLD);
+        SpannableString second = new SpannableString("{fa-adn}A");
+        second.setSpan(secondSpan, 8, 9, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        Spanned result = (Spanned) Iconify.compute(second);
+
+        assertEquals(1, cache.missCount());
+        assertEquals(1, cache.hitCount());
+        assertEquals(fa_adn.character + "A", result.toString());
+        // The result carries the spans of the rebuilt text, shifted like the first one
+        StyleSpan[] spans = result.getSpans(0, result.length(), StyleSpan.class);
+        assertEquals(1, spans.length);
+        assertSame(secondSpan, spans[0]);
+        assertEquals(1, result.getSpanStart(secondSpan));
+        assertEquals(2, result.getSpanEnd(secondSpan));
+
+        // Another range is another key
+        SpannableString moved = new SpannableString("{fa-adn}A");
+        moved.setSpan(new StyleSpan(Typeface.BOLD), 0, 9, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        Iconify.compute(moved);
+        assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    public void test_compute_invalidatedByRegistration() {
+        CharSequence first = Iconify.compute("A{fa-adn}");
+        Iconify.with(Iconify.FONT_AWESOME);
+        CharSequence second = Iconify.compute("A{fa-adn}");
+
+        assertNotSame(first, second);
+        assertEquals(2, cache.missCount());
+    }
+
+}
@@ -0,0 +1,252 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.joanzapata.android.iconify.Iconify.IconValue.fa_adn;
+import static com.joanzapata.android.iconify.Iconify.IconValue.fa_adjust;
+import static com.joanzapata.android.iconify.Iconify.IconValue.fa_graduation_cap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class IconDrawableTest {
+
+    @Test
+    public void test_drawAsPath() {
+        IconDrawable drawable = new IconDrawable(Robolectric.application, fa_adn).sizePx(48).drawAsPath(true);
+        RecordingCanvas canvas = new RecordingCanvas();
+        drawable.draw(canvas);
+
+        // The outline shared through the path cache is drawn instead of the text
+        IconPathCache.Glyph glyph = IconPathCache.get(fa_adn, state(drawable).paint.getTypeface());
+        assertSame(glyph, state(drawable).glyph());
+        assertSame(glyph.path, canvas.path);
+        assertEquals(0, canvas.texts);
+
+        drawable.drawAsPath(false);
+        canvas.path = null;
+        drawable.draw(canvas);
+        assertNull(canvas.path);
+        assertEquals(1, canvas.texts);
+    }
+
+    @Test
+    public void test_intrinsicWidth() {
+        assertEquals(48, new IconDrawable(Robolectric.application, fa_adn).sizePx(48).getIntrinsicWidth());
+        // 2304 units wide for an em of 1792
+        IconDrawable wide = new IconDrawable(Robolectric.application, fa_graduation_cap).sizePx(48);
+        assertEquals(62, wide.getIntrinsicWidth());
+        assertEquals(48, wide.getIntrinsicHeight());
+        assertEquals(62, wide.getBounds().width());
+    }
+
+    @Test
+    public void test_pathCache_shared() {
+        Typeface typeface = Typeface.DEFAULT;
+        IconPathCache.Glyph glyph = IconPathCache.get(fa_adn, typeface);
+        assertSame(glyph, IconPathCache.get(fa_adn, typeface));
+        assertNotSame(glyph, IconPathCache.get(fa_adjust, typeface));
+    }
+
+    @Test
+    public void test_constantState_shared() {
+        IconDrawable drawable = new IconDrawable(Robolectric.application, fa_adn).sizePx(48).color(Color.RED);
+        IconDrawable sibling = (IconDrawable) drawable.getConstantState().newDrawable();
+        IconDrawable.IconState state = (IconDrawable.IconState) drawable.getConstantState();
+        assertSame(state, sibling.getConstantState());
+        assertSame(state.paint, state(sibling).paint);
+        assertEquals(48, sibling.getIntrinsicWidth());
+        assertEquals(48, sibling.getIntrinsicHeight());
+
+        // Changes without mutate() are seen by the siblings
+        drawable.color(Color.BLUE);
+        assertEquals(Color.BLUE, state(sibling).paint.getColor());
+    }
+
+    @Test
+    public void test_mutate() {
+        IconDrawable drawable = new IconDrawable(Robolectric.application, fa_adn).sizePx(48).color(Color.RED);
+        IconDrawable sibling = (IconDrawable) drawable.getConstantState().newDrawable();
+        IconDrawable mutated = (IconDrawable) drawable.getConstantState().newDrawable();
+        assertSame(mutated, mutated.mutate());
+        assertNotSame(state(drawable), state(mutated));
+        assertEquals(48, mutated.getIntrinsicHeight());
+
+        mutated.color(Color.BLUE).alpha(128);
+        assertEquals(Color.BLUE, state(mutated).paint.getColor());
+        assertEquals(128, state(mutated).alpha);
+        assertEquals(Color.RED, state(drawable).paint.getColor());
+        assertEquals(255, state(drawable).alpha);
+        assertSame(state(drawable), state(sibling));
+
+        // Mutating twice keeps the same state
+        IconDrawable.IconState state = state(mutated);
+        mutated.mutate();
+        assertSame(state, state(mutated));
+    }
+
+    @Test
+    public void test_spin() {
+        IconDrawable drawable = new IconDrawable(Robolectric.application, fa_adn).sizePx(48);
+        RecordingCallback callback = new RecordingCallback();
+        drawable.setCallback(callback);
+        drawable.spin();
+        assertTrue(drawable.isRunning());
+        assertSame(drawable, callback.scheduled);
+
+        Robolectric.getUiThreadScheduler().advanceBy(500);
+        assertEquals(90f, drawable.rotation(), 0f);
+        drawable.draw(new Canvas(Bitmap.createBitmap(48, 48, Bitmap.Config.ARGB_8888)));
+    }
+
+    @Test
+    public void test_spin_beforeCallback() {
+        IconDrawable drawable = new IconDrawable(Robolectric.application, fa_adn).sizePx(48);
+        drawable.spin();
+        assertFalse(drawable.isRunning());
+
+        RecordingCallback callback = new RecordingCallback();
+        drawable.setCallback(callback);
+        drawable.draw(new Canvas(Bitmap.createBitmap(48, 48, Bitmap.Config.ARGB_8888)));
+        assertTrue(drawable.isRunning());
+        assertSame(drawable, callback.scheduled);
+
+        Robolectric.getUiThreadScheduler().advanceBy(500);
+        assertEquals(90f, drawable.rotation(), 0f);
+    }
+
+    @Test
+    public void test_pulse_beforeCallback_startsWhenShown() {
+        IconDrawable drawable = new IconDrawable(Robolectric.application, fa_adn).sizePx(48);
+        drawable.pulse();
+        RecordingCallback callback = new RecordingCallback();
+        drawable.setCallback(callback);
+        drawable.setVisible(true, false);
+        assertTrue(drawable.isRunning());
+        assertSame(drawable, callback.scheduled);
+    }
+
+    @Test
+    public void test_stop_beforeCallback() {
+        IconDrawable drawable = new IconDrawable(Robolectric.application, fa_adn).sizePx(48);
+        drawable.spin();
+        drawable.stop();
+        drawable.setCallback(new RecordingCallback());
+        drawable.draw(new Canvas(Bitmap.createBitmap(48, 48, Bitmap.Config.ARGB_8888)));
+        assertFalse(drawable.isRunning());
+    }
+
+    @Test
+    public void test_pulse_steps() {
+        IconDrawable drawable = new IconDrawable(Robolectric.application, fa_adn).sizePx(48);
+        drawable.setCallback(new RecordingCallback());
+        drawable.pulse();
+        Robolectric.getUiThreadScheduler().advanceBy(300);
+        assertEquals(90f, drawable.rotation(), 0f);
+    }
+
+    @Test
+    public void test_animation_stopsWhenHidden() {
+        IconDrawable drawable = new IconDrawable(Robolectric.application, fa_adn).sizePx(48);
+        RecordingCallback callback = new RecordingCallback();
+        drawable.setCallback(callback);
+        drawable.spin();
+        drawable.setVisible(false, false);
+        assertFalse(drawable.isRunning());
+        assertNull(callback.scheduled);
+        assertEquals(0f, drawable.rotation(), 0f);
+
+        drawable.setVisible(true, false);
+        assertTrue(drawable.isRunning());
+    }
+
+    @Test
+    public void test_animation_stopsWhenDetached() {
+        IconDrawable drawable = new IconDrawable(Robolectric.application, fa_adn).sizePx(48);
+        drawable.setCallback(new RecordingCallback());
+        drawable.spin();
+        drawable.setCallback(null);
+        drawable.run();
+        assertFalse(drawable.isRunning());
+    }
+
+    private static IconDrawable.IconState state(IconDrawable drawable) {
+        return (IconDrawable.IconState) drawable.getConstantState();
+    }
+
+    private static class RecordingCanvas extends Canvas {
+
+        Path path;
+
+        int texts;
+
+        RecordingCanvas() {
+            super(Bitmap.createBitmap(48, 48, Bitmap.Config.ARGB_8888));
+        }
+
+        @Override
+        public void drawPath(Path path, Paint paint) {
+            this.path = path;
+        }
+
+        @Override
+        public void drawText(String text, float x, float y, Paint paint) {
+            texts++;
+        }
+    }
+
+    private static class RecordingCallback implements Drawable.Callback {
+
+        Runnable scheduled;
+
+        @Override
+        public void invalidateDrawable(Drawable who) {
+        }
+
+        @Override
+        public void scheduleDrawable(Drawable who, Runnable what, long when) {
+            scheduled = what;
+        }
+
+        @Override
+        public void unscheduleDrawable(Drawable who, Runnable what) {
+            if (scheduled == what) scheduled = null;
+        }
+    }
+}
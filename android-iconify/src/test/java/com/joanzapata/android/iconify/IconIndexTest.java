@@ -0,0 +1,86 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import org.junit.Test;
+
+import static com.joanzapata.android.iconify.Iconify.IconValue;
+import static com.joanzapata.android.iconify.Iconify.IconValue.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class IconIndexTest {
+
+    private final IconIndex<IconValue> index = IconIndex.of(IconValue.values());
+
+    @Test
+    public void test_get_allValues() {
+        for (IconValue value : IconValue.values()) {
+            String name = value.name();
+            assertEquals(value, index.get(name, 0, name.length()));
+        }
+    }
+
+    @Test
+    public void test_get_precomputedSlots() {
+        IconIndex<IconValue> precomputed = new IconIndex<IconValue>(
+                FontAwesomeTable.NAMES, IconValue.values(), FontAwesomeTable.SLOTS);
+        for (IconValue value : IconValue.values()) {
+            String name = value.name();
+            assertEquals(value, precomputed.get(name, 0, name.length()));
+            assertEquals(value.character(), FontAwesomeTable.CHARACTERS[value.ordinal()]);
+        }
+        assertNull(precomputed.get("fa-unknown", 0, 10));
+    }
+
+    @Test
+    public void test_get_withDash() {
+        assertEquals(fa_arrow_circle_o_down, get("fa-arrow-circle-o-down"));
+    }
+
+    @Test
+    public void test_get_range() {
+        assertEquals(fa_adn, index.get("A{fa-adn}A", 2, 8));
+    }
+
+    @Test
+    public void test_get_unknown() {
+        assertNull(get("fa-unknown"));
+        assertNull(get("fa"));
+        assertNull(get(""));
+    }
+
+    @Test
+    public void test_get_prefixOfName() {
+        assertNull(get("fa_adjus"));
+        assertNull(get("fa_adjustt"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_duplicateNames() {
+        new IconIndex<String>(new String[]{"fa-a", "fa_a"}, new String[]{"1", "2"});
+    }
+
+    private IconValue get(String name) {
+        return index.get(name, 0, name.length());
+    }
+
+}
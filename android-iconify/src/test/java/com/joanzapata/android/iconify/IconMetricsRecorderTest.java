@@ -0,0 +1,82 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class IconMetricsRecorderTest {
+
+    private final IconMetricsRecorder recorder = new IconMetricsRecorder();
+
+    @Before
+    public void setUp() {
+        Iconify.setMetrics(recorder);
+    }
+
+    @After
+    public void tearDown() {
+        Iconify.setMetrics(null);
+    }
+
+    @Test
+    public void test_compute() {
+        Iconify.compute("{fa-adn} {fa-adjust} {fa-nope}");
+        Iconify.compute("No icon");
+
+        assertEquals(2, recorder.computeLatency().count());
+        assertEquals(2, recorder.iconsResolved());
+        assertEquals(1, recorder.unknownIconCount());
+        assertEquals(Collections.singletonMap("fa-nope", 1), recorder.unknownIcons());
+    }
+
+    @Test
+    public void test_unknownIcons_bounded() {
+        for (int i = 0; i < IconMetricsRecorder.MAX_UNKNOWN_ICONS + 10; i++)
+            recorder.onUnknownIcon("fa-nope-" + i);
+        assertEquals(IconMetricsRecorder.MAX_UNKNOWN_ICONS + 10, recorder.unknownIconCount());
+        assertEquals(IconMetricsRecorder.MAX_UNKNOWN_ICONS, recorder.unknownIcons().size());
+    }
+
+    @Test
+    public void test_histogram() {
+        IconMetricsRecorder.Histogram histogram = recorder.computeLatency();
+        for (int i = 0; i < 99; i++) histogram.record(1000);
+        histogram.record(1000000);
+
+        assertEquals(100, histogram.count());
+        assertEquals(99, histogram.bucketCount(9));
+        assertEquals(1023, histogram.percentileNanos(50));
+        assertEquals(1023, histogram.percentileNanos(99));
+        assertTrue(histogram.percentileNanos(100) >= 1000000);
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.text.Spanned;
+import android.text.SpannedString;
+import android.text.TextPaint;
+import android.widget.TextView;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class IconPrecomputedTextTest {
+
+    @Test
+    public void test_create() {
+        TextPaint paint = new TextPaint();
+        paint.setTextSize(20);
+        IconPrecomputedText text = IconPrecomputedText.create(Robolectric.application, "A {fa-adn}", paint);
+        assertTrue(text.getText() instanceof SpannedString);
+        assertEquals("A \uf170", text.getText().toString());
+        assertEquals(20f, text.getTextSize(), 0f);
+        assertTrue(text.getWidth() > 0);
+
+        // The icon was measured through its span, displaying it with the same paint doesn't measure it again
+        IconSpan span = ((Spanned) text.getText()).getSpans(0, 3, IconSpan.class)[0];
+        int misses = IconWidthCache.missCount();
+        int hits = IconWidthCache.hitCount();
+        assertTrue(span.getSize(new TextPaint(paint), text.getText(), 2, 3, null) > 0);
+        assertEquals(misses, IconWidthCache.missCount());
+        assertEquals(hits + 1, IconWidthCache.hitCount());
+
+        TextView textView = new TextView(Robolectric.application);
+        text.applyTo(textView);
+        assertEquals(text.getText().toString(), textView.getText().toString());
+    }
+
+    @Test
+    public void test_createInBackground() throws Exception {
+        QueueExecutor executor = new QueueExecutor();
+        TextView textView = new TextView(Robolectric.application);
+        Future<IconPrecomputedText> future = IconPrecomputedText.createInBackground(textView, "{fa-adn}", executor);
+        executor.runAll();
+        assertEquals("\uf170", future.get().getText().toString());
+        assertTrue(future.get().getWidth() > 0);
+    }
+
+    @Test
+    public void test_cancel() {
+        QueueExecutor executor = new QueueExecutor();
+        Future<IconPrecomputedText> future = IconPrecomputedText.createInBackground(
+                Robolectric.application, "{fa-adn}", new TextPaint(), executor);
+        future.cancel(true);
+        executor.runAll();
+        assertTrue(future.isCancelled());
+        assertEquals(1, executor.ran);
+    }
+
+    private static class QueueExecutor implements Executor {
+
+        private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        int ran;
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            for (Runnable task : tasks) {
+                task.run();
+                ran++;
+            }
+            tasks.clear();
+        }
+    }
+}
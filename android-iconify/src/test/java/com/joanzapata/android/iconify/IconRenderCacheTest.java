@@ -0,0 +1,118 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.joanzapata.android.iconify.Iconify.IconValue.fa_adjust;
+import static com.joanzapata.android.iconify.Iconify.IconValue.fa_adn;
+import static com.joanzapata.android.iconify.Iconify.IconValue.fa_camera;
+import static com.joanzapata.android.iconify.Iconify.IconValue.fa_github;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class IconRenderCacheTest {
+
+    private static final int CELL_BYTES = 48 * 48 * 4;
+
+    private final Canvas canvas = new Canvas(Bitmap.createBitmap(64, 64, Bitmap.Config.ARGB_8888));
+
+    @After
+    public void tearDown() {
+        IconRenderCache.disable();
+    }
+
+    @Test
+    public void test_hit() {
+        IconRenderCache.enable(1024 * 1024);
+        IconRenderCache cache = IconRenderCache.getInstance();
+        draw(new IconDrawable(Robolectric.application, fa_adn));
+        draw(new IconDrawable(Robolectric.application, fa_adn));
+        assertEquals(1, cache.missCount());
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    public void test_miss() {
+        IconRenderCache.enable(1024 * 1024);
+        IconRenderCache cache = IconRenderCache.getInstance();
+        draw(new IconDrawable(Robolectric.application, fa_adn));
+        draw(new IconDrawable(Robolectric.application, fa_adjust));
+        draw(new IconDrawable(Robolectric.application, fa_adn).color(0xFFFF0000));
+        draw(new IconDrawable(Robolectric.application, fa_adn).drawAsPath(true));
+        IconDrawable filled = new IconDrawable(Robolectric.application, fa_adn);
+        filled.setStyle(Paint.Style.FILL);
+        draw(filled);
+        assertEquals(5, cache.missCount());
+        assertEquals(0, cache.hitCount());
+    }
+
+    @Test
+    public void test_eviction() {
+        IconRenderCache.enable(2 * CELL_BYTES);
+        IconRenderCache cache = IconRenderCache.getInstance();
+        draw(new IconDrawable(Robolectric.application, fa_adn));
+        draw(new IconDrawable(Robolectric.application, fa_adjust));
+        draw(new IconDrawable(Robolectric.application, fa_github));
+        assertEquals(1, cache.evictionCount());
+
+        // The least recently used one has been evicted
+        draw(new IconDrawable(Robolectric.application, fa_adn));
+        assertEquals(0, cache.hitCount());
+    }
+
+    @Test
+    public void test_byteBudget() {
+        IconRenderCache.enable(2 * CELL_BYTES);
+        IconRenderCache cache = IconRenderCache.getInstance();
+        draw(new IconDrawable(Robolectric.application, fa_adn));
+        assertEquals(CELL_BYTES, cache.size());
+        draw(new IconDrawable(Robolectric.application, fa_adjust));
+        draw(new IconDrawable(Robolectric.application, fa_github));
+        assertTrue(cache.size() <= cache.maxSize());
+    }
+
+    @Test
+    public void test_wideGlyph_notClipped() {
+        IconRenderCache.enable(1024 * 1024);
+        IconRenderCache cache = IconRenderCache.getInstance();
+        // 1920 units wide for an em of 1792, drawn in square bounds
+        draw(new IconDrawable(Robolectric.application, fa_camera));
+        assertTrue(cache.size() > CELL_BYTES);
+        assertFalse(cache.size() > 64 * 48 * 4);
+    }
+
+    private void draw(IconDrawable drawable) {
+        drawable.setBounds(0, 0, 48, 48);
+        drawable.draw(canvas);
+    }
+}
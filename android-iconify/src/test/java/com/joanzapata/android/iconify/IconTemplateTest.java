@@ -0,0 +1,64 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.joanzapata.android.iconify.Iconify.IconValue.fa_adn;
+import static com.joanzapata.android.iconify.Iconify.IconValue.fa_star;
+import static org.junit.Assert.assertEquals;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class IconTemplateTest {
+
+    @Test
+    public void test_format() {
+        IconTemplate template = IconTemplate.compile("{fa-star} %s rated");
+        assertEquals(fa_star.character + " 42 rated", template.format(42));
+        assertEquals(fa_star.character + " 7 rated", template.format("7"));
+    }
+
+    @Test
+    public void test_format_iconArgument() {
+        IconTemplate template = IconTemplate.compile("%s  %s");
+        assertEquals(fa_adn.character + "  fa-adn", template.format(fa_adn, "fa-adn"));
+    }
+
+    @Test
+    public void test_format_percent() {
+        assertEquals("100% {fa}", IconTemplate.compile("%s%% {fa}").format(100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_compile_unsupportedFormat() {
+        IconTemplate.compile("%d");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_format_wrongArgumentCount() {
+        IconTemplate.compile("%s %s").format("A");
+    }
+
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.graphics.Typeface;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.util.AttributeSet;
+import android.widget.IconTextView;
+import android.widget.TextView;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.res.Attribute;
+import org.robolectric.shadows.RoboAttributeSet;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class IconTextViewTest {
+
+    private IconTextView view;
+
+    private IconFontRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = IconFontRegistry.get();
+        view = new IconTextView(Robolectric.application);
+    }
+
+    @After
+    public void tearDown() {
+        IconFontRegistry.restore(registry);
+    }
+
+    @Test
+    public void test_addIconSpans_keepsTypeface() {
+        TextView textView = new TextView(Robolectric.application);
+        textView.setText("A {fa-adn}");
+        Typeface typeface = textView.getTypeface();
+        Iconify.addIconSpans(textView);
+        assertSame(typeface, textView.getTypeface());
+        assertEquals("A \uf170", textView.getText().toString());
+        assertEquals(1, ((Spanned) textView.getText()).getSpans(0, 3, IconSpan.class).length);
+    }
+
+    @Test
+    public void test_setText() {
+        view.setText("A {fa-adn}");
+        assertEquals("A \uf170", view.getText().toString());
+    }
+
+    @Test
+    public void test_setText_sameText() {
+        view.setText("A {fa-adn}");
+        CharSequence text = view.getText();
+        view.setText(text);
+        assertSame(text, view.getText());
+    }
+
+    @Test
+    public void test_setText_editable() {
+        view.setText("A", TextView.BufferType.EDITABLE);
+        SpannableStringBuilder editable = (SpannableStringBuilder) view.getText();
+        editable.append(" {fa-adn}");
+        view.setText(editable);
+        assertEquals("A \uf170", view.getText().toString());
+    }
+
+    @Test
+    public void test_setText_otherFont() {
+        final Typeface typeface = Typeface.create("test", Typeface.NORMAL);
+        IconFontDescriptor descriptor = new TestFont();
+        IconFontRegistry.register(new IconFont(descriptor, null,
+                new TypefaceLoader(descriptor.ttfFileName(), descriptor.ttfChecksum()) {
+                    @Override
+                    Typeface createTypeface(File file) {
+                        return typeface;
+                    }
+                }));
+
+        view.setText("A {test-a}");
+        assertEquals("A \ue001", view.getText().toString());
+        assertSame(typeface, view.getTypeface());
+    }
+
+    @Test
+    public void test_setText_keepsTypefaceWithoutIcons() {
+        Typeface typeface = Typeface.create("custom", Typeface.BOLD);
+        view.setTypeface(typeface);
+        view.setText("plain");
+        assertSame(typeface, view.getTypeface());
+        view.setText("A {fa-unknown}");
+        assertSame(typeface, view.getTypeface());
+    }
+
+    @Test
+    public void test_inflate_computesOnce() {
+        AttributeSet attrs = new RoboAttributeSet(new ArrayList<Attribute>(), Robolectric.application.getResources(),
+                IconTextView.class).put("android:attr/text", "A {fa-adn}", "android");
+        IconMetricsRecorder recorder = new IconMetricsRecorder();
+        Iconify.setMetrics(recorder);
+        try {
+            IconTextView inflated = new IconTextView(Robolectric.application, attrs);
+            assertEquals("A \uf170", inflated.getText().toString());
+        } finally {
+            Iconify.setMetrics(null);
+        }
+        // Once by the TextView constructor, the text it gives back isn't computed again
+        assertEquals(1, recorder.computeLatency().count());
+    }
+
+    @Test
+    public void test_setText_null() {
+        view.setText(null);
+        assertEquals("", view.getText().toString());
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.text.SpannableStringBuilder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class IconTextWatcherTest {
+
+    @Test
+    public void test_typing() {
+        IconTextWatcher watcher = new IconTextWatcher();
+        SpannableStringBuilder text = new SpannableStringBuilder();
+        for (char c : "A {fa-adn} B".toCharArray())
+            replace(watcher, text, text.length(), text.length(), String.valueOf(c));
+        assertEquals("A \uf170 B", text.toString());
+    }
+
+    @Test
+    public void test_onlyEditedToken() {
+        IconTextWatcher watcher = new IconTextWatcher();
+        // The first token was there before the watcher
+        SpannableStringBuilder text = new SpannableStringBuilder("{fa-adn} {fa-adjus");
+        replace(watcher, text, text.length(), text.length(), "t}");
+        assertEquals("{fa-adn} \uf042", text.toString());
+    }
+
+    @Test
+    public void test_closingTokenInTheMiddle() {
+        IconTextWatcher watcher = new IconTextWatcher();
+        SpannableStringBuilder text = new SpannableStringBuilder("A {fa-a B");
+        replace(watcher, text, 6, 7, "adn}");
+        assertEquals("A \uf170 B", text.toString());
+    }
+
+    @Test
+    public void test_spans() {
+        IconTextWatcher watcher = new IconTextWatcher(Robolectric.application);
+        SpannableStringBuilder text = new SpannableStringBuilder("A ");
+        replace(watcher, text, 2, 2, "{fa-adn}");
+        assertEquals(1, text.getSpans(0, text.length(), IconSpan.class).length);
+    }
+
+    /** Replace a range of the text, notifying the watcher as an EditText would. */
+    private static void replace(IconTextWatcher watcher, SpannableStringBuilder text, int start, int end, String with) {
+        watcher.beforeTextChanged(text, start, end - start, with.length());
+        text.replace(start, end, with);
+        watcher.onTextChanged(text, start, end - start, with.length());
+        watcher.afterTextChanged(text);
+    }
+}
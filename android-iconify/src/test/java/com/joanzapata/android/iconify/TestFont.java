@@ -0,0 +1,76 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+/**
+ * A font of a single icon, {prefix-a}, reusing the FontAwesome TTF so that
+ * it can be loaded, for the tests of fonts other than FontAwesome.
+ */
+class TestFont implements IconFontDescriptor {
+
+    static final String TTF = "fontawesome-webfont-4.1.0.ttf";
+
+    static final long TTF_CRC32 = 0xb6469d24L;
+
+    private final String prefix;
+
+    private final char character;
+
+    /** {test-a}, the character U+E001. */
+    TestFont() {
+        this("test", '\ue001');
+    }
+
+    TestFont(String prefix, char character) {
+        this.prefix = prefix;
+        this.character = character;
+    }
+
+    @Override
+    public String prefix() {
+        return prefix;
+    }
+
+    @Override
+    public String ttfFileName() {
+        return TTF;
+    }
+
+    @Override
+    public long ttfChecksum() {
+        return TTF_CRC32;
+    }
+
+    @Override
+    public Icon[] characters() {
+        return new Icon[]{new Icon() {
+            @Override
+            public String key() {
+                return prefix + "_a";
+            }
+
+            @Override
+            public char character() {
+                return character;
+            }
+        }};
+    }
+}
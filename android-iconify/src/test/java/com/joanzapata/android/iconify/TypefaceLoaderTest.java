@@ -0,0 +1,147 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import android.graphics.Typeface;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class TypefaceLoaderTest {
+
+    @Test
+    public void test_peek() {
+        CountingLoader loader = new CountingLoader();
+        assertNull(loader.peek());
+        Typeface typeface = loader.get(Robolectric.application);
+        assertNotNull(typeface);
+        assertSame(typeface, loader.peek());
+        assertSame(typeface, loader.get(Robolectric.application));
+        assertEquals(1, loader.loads.get());
+    }
+
+    @Test
+    public void test_preload() throws Exception {
+        CountingLoader loader = new CountingLoader();
+        RecordingExecutor executor = new RecordingExecutor();
+        Future<Typeface> future = loader.preload(Robolectric.application, executor);
+        assertSame(future, loader.preload(Robolectric.application, executor));
+        assertEquals(1, executor.commands.size());
+        assertFalse(future.isDone());
+        assertNull(loader.peek());
+
+        executor.commands.get(0).run();
+        assertTrue(future.isDone());
+        assertNotNull(future.get());
+        assertSame(future.get(), loader.peek());
+        assertSame(future.get(), loader.get(Robolectric.application));
+        assertEquals(1, loader.loads.get());
+
+        // Once loaded, nothing is submitted anymore
+        assertSame(future.get(), loader.preload(Robolectric.application, executor).get());
+        assertEquals(1, executor.commands.size());
+    }
+
+    @Test
+    public void test_preload_iconify() {
+        RecordingExecutor executor = new RecordingExecutor();
+        Future<Typeface> future = Iconify.preload(Robolectric.application, executor);
+        assertSame(future, Iconify.preload(Robolectric.application, executor));
+        assertEquals(1, executor.commands.size());
+        executor.commands.get(0).run();
+        assertTrue(future.isDone());
+    }
+
+    @Test
+    public void test_concurrentLoads() throws Exception {
+        final CountingLoader loader = new CountingLoader();
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Typeface>> results = new ArrayList<Future<Typeface>>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(new Callable<Typeface>() {
+                    @Override
+                    public Typeface call() throws Exception {
+                        start.await();
+                        return loader.get(Robolectric.application);
+                    }
+                }));
+            }
+            start.countDown();
+            Typeface typeface = results.get(0).get();
+            assertNotNull(typeface);
+            for (Future<Typeface> result : results) {
+                assertSame(typeface, result.get());
+            }
+            assertEquals(1, loader.loads.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /** Robolectric can't create typefaces from files, this one creates a new typeface per load. */
+    private static class CountingLoader extends TypefaceLoader {
+
+        final AtomicInteger loads = new AtomicInteger();
+
+        CountingLoader() {
+            super(FontAwesomeTable.TTF_FILE, FontAwesomeTable.TTF_CRC32);
+        }
+
+        @Override
+        Typeface createTypeface(File file) {
+            return Typeface.create("Iconify-" + loads.incrementAndGet(), Typeface.NORMAL);
+        }
+    }
+
+    private static class RecordingExecutor implements Executor {
+
+        final List<Runnable> commands = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable command) {
+            commands.add(command);
+        }
+    }
+}
@@ -20,18 +20,53 @@
  */
 package com.joanzapata.android.iconify;
 
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.style.StyleSpan;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.io.File;
+import java.io.IOException;
+
 import static com.joanzapata.android.iconify.Iconify.IconValue.*;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 @Config(manifest = Config.NONE)
 @RunWith(RobolectricTestRunner.class)
 public class UtilsTest {
 
+    private static final String TTF = "fontawesome-webfont-4.1.0.ttf";
+
+    private static final long TTF_CRC32 = 0xb6469d24L;
+
+    /** Not a real font, see src/test/resources. */
+    private static final String OTHER_TTF = "test-font-1.0.ttf";
+
+    private static final long OTHER_TTF_CRC32 = 0xa25c27daL;
+
+    private IconFontRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = IconFontRegistry.get();
+    }
+
+    @After
+    public void tearDown() {
+        IconFontRegistry.restore(registry);
+    }
+
     @Test
     public void test_replaceIcons() {
         test("A{fa_adjust}A", "A" + fa_adjust.character + "A");
@@ -62,6 +97,151 @@ public class UtilsTest {
         test("A{}A", "A{}A");
     }
 
+    @Test
+    public void test_replaceIcons_unknownThenKnown() {
+        test("A{fa-unknown}A{fa-adn}A", "A{fa-unknown}A" + fa_adn.character + "A");
+    }
+
+    @Test
+    public void test_replaceIcons_unterminated() {
+        test("A{fa-adjust", "A{fa-adjust");
+    }
+
+    @Test
+    public void test_replaceIcons_unterminatedThenKnown() {
+        test("A{fa-adjust{fa-adn}A", "A{fa-adjust" + fa_adn.character + "A");
+    }
+
+    @Test
+    public void test_replaceIcons_iconsOnly() {
+        test("{fa-adjust}{fa-adn}", "" + fa_adjust.character + fa_adn.character);
+    }
+
+    @Test
+    public void test_replaceIcons_keepsSpans() {
+        SpannableStringBuilder text = new SpannableStringBuilder("A{fa-adjust}BC{fa-adn}D");
+        StyleSpan bold = new StyleSpan(Typeface.BOLD);
+        text.setSpan(bold, 12, 14, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+
+        Utils.replaceIcons(text);
+
+        assertEquals("A" + fa_adjust.character + "BC" + fa_adn.character + "D", text.toString());
+        assertEquals(2, text.getSpanStart(bold));
+        assertEquals(4, text.getSpanEnd(bold));
+    }
+
+    @Test
+    public void test_replaceIcons_spannableLikePlain() {
+        String in = "A{fa-unknown}A{fa-adjust{fa-adn}A{}";
+        assertEquals(Utils.replaceIcons(new StringBuilder(in)).toString(),
+                Utils.replaceIcons(new SpannableStringBuilder(in)).toString());
+    }
+
+    @Test
+    public void test_replaceIcons_otherFont() {
+        Iconify.with(new TestFont());
+        test("A{test-a}A{fa-adn}A{test-b}", "A\ue001A" + fa_adn.character + "A{test-b}");
+    }
+
+    @Test
+    public void test_replaceIconsWithSpans_otherFont() {
+        Iconify.with(new TestFont());
+        SpannableStringBuilder text = Utils.replaceIconsWithSpans(
+                new SpannableStringBuilder("A{test-a}A{fa-adn}"), Robolectric.application);
+        assertEquals("A\ue001A" + fa_adn.character, text.toString());
+        IconSpan[] spans = text.getSpans(0, text.length(), IconSpan.class);
+        assertEquals(2, spans.length);
+        assertEquals(1, text.getSpanStart(spans[0]));
+        assertEquals("test_a", spans[0].getIcon().key());
+        assertEquals(3, text.getSpanStart(spans[1]));
+        assertEquals(fa_adn, spans[1].getIcon());
+    }
+
+    @Test
+    public void test_iconSpan_sharesWidth() {
+        Paint paint = new Paint();
+        // Sizes that no other test measures
+        paint.setTextSize(21.25f);
+        IconSpan first = Utils.replaceIconsWithSpans(new SpannableStringBuilder("{fa-adn}"), Robolectric.application)
+                .getSpans(0, 1, IconSpan.class)[0];
+        IconSpan second = Utils.replaceIconsWithSpans(new SpannableStringBuilder("A{fa-adn}"), Robolectric.application)
+                .getSpans(0, 2, IconSpan.class)[0];
+        int misses = IconWidthCache.missCount();
+        int hits = IconWidthCache.hitCount();
+        int width = first.getSize(paint, "", 0, 1, null);
+        assertEquals(width, second.getSize(paint, "", 0, 1, null));
+        assertEquals(misses + 1, IconWidthCache.missCount());
+        assertEquals(hits + 1, IconWidthCache.hitCount());
+        // Another text size is measured again
+        paint.setTextSize(21.75f);
+        second.getSize(paint, "", 0, 1, null);
+        assertEquals(misses + 2, IconWidthCache.missCount());
+    }
+
+    @Test
+    public void test_firstFont() {
+        Iconify.with(new TestFont());
+        assertEquals("test", Utils.firstFont("A{test-b}{test_a}{fa-adn}").descriptor.prefix());
+        assertEquals("fa", Utils.firstFont("A{fa-adn}{test-a}").descriptor.prefix());
+        assertNull(Utils.firstFont("A"));
+        assertNull(Utils.firstFont("A{fa-unknown}{test-b}"));
+    }
+
+    @Test
+    public void test_resourceToFile() throws IOException {
+        File folder = new File(Robolectric.application.getFilesDir(), Utils.ICON_FONT_FOLDER);
+        folder.mkdirs();
+        File stale = new File(folder, "fontawesome-webfont-4.1.0-deadbeef.ttf");
+        stale.createNewFile();
+        File leftover = new File(folder, TTF + "123.tmp");
+        leftover.createNewFile();
+
+        File file = Utils.resourceToFile(Robolectric.application, TTF, TTF_CRC32);
+
+        assertEquals("fontawesome-webfont-4.1.0-b6469d24.ttf", file.getName());
+        assertEquals(141564, file.length());
+        assertFalse(stale.exists());
+        assertFalse(leftover.exists());
+    }
+
+    @Test
+    public void test_resourceToFile_keepsOtherFonts() throws IOException {
+        File folder = new File(Robolectric.application.getFilesDir(), Utils.ICON_FONT_FOLDER);
+        folder.mkdirs();
+        File otherVersion = new File(folder, "fontawesome-webfont-4.0.3-deadbeef.ttf");
+        otherVersion.createNewFile();
+        File otherTemporary = new File(folder, "fontawesome-webfont-4.0.3.ttf123.tmp");
+        otherTemporary.createNewFile();
+
+        File first = Utils.resourceToFile(Robolectric.application, TTF, TTF_CRC32);
+        File second = Utils.resourceToFile(Robolectric.application, OTHER_TTF, OTHER_TTF_CRC32);
+
+        assertEquals("test-font-1.0-a25c27da.ttf", second.getName());
+        assertTrue(first.exists());
+        assertTrue(second.exists());
+        assertTrue(otherVersion.exists());
+        assertTrue(otherTemporary.exists());
+    }
+
+    @Test
+    public void test_subset_none() throws IOException {
+        assertEquals("fontawesome-webfont-4.1.0.subset.ttf", Utils.subsetName(TTF));
+        assertEquals(-1, Utils.readChecksum(Utils.subsetName(TTF)));
+    }
+
+    @Test
+    public void test_resourceToFile_wrongChecksum() {
+        try {
+            Utils.resourceToFile(Robolectric.application, TTF, 42);
+            throw new AssertionError("Expected an IOException");
+        } catch (IOException e) {
+            File folder = new File(Robolectric.application.getFilesDir(), Utils.ICON_FONT_FOLDER);
+            assertFalse(new File(folder, Utils.versionedName(TTF, 42)).exists());
+            for (String name : folder.list())
+                assertFalse(name.endsWith(".tmp"));
+        }
+    }
+
     private void test(String in, String out) {
         assertEquals(out, Utils.replaceIcons(new StringBuilder(in)).toString());
     }
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2013 Joan Zapata
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * It uses FontAwesome font, licensed under OFL 1.1, which is compatible
+ * with this library's license.
+ *
+ *     http://scripts.sil.org/cms/scripts/render_download.php?format=file&media_id=OFL_plaintext&filename=OFL.txt
+ */
+package com.joanzapata.android.iconify;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class WarningsTest {
+
+    private final Warnings warnings = new Warnings(2, 100);
+
+    @Test
+    public void test_admit_deduplicated() {
+        assertEquals(0, warnings.admit("a", 0));
+        assertEquals(-1, warnings.admit("a", 1));
+        assertEquals(-1, warnings.admit("a", 2));
+        assertEquals(2, warnings.admit("b", 3));
+    }
+
+    @Test
+    public void test_admit_rateLimited() {
+        assertEquals(0, warnings.admit("a", 0));
+        assertEquals(0, warnings.admit("b", 1));
+        assertEquals(-1, warnings.admit("c", 2));
+        assertEquals(-1, warnings.admit("d", 3));
+    }
+
+    @Test
+    public void test_admit_nextPeriod() {
+        assertEquals(0, warnings.admit("a", 0));
+        assertEquals(0, warnings.admit("b", 1));
+        assertEquals(-1, warnings.admit("c", 2));
+        assertEquals(-1, warnings.admit("a", 99));
+        assertEquals(2, warnings.admit("a", 100));
+        assertEquals(-1, warnings.admit("a", 150));
+    }
+}
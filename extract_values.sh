@@ -1,4 +1,11 @@
 #!/bin/sh
+#
+# Prints the icons of the FontAwesome cheatsheet in the format of the
+# icons files, for instance when upgrading the font:
+#
+#   ./extract_values.sh > android-iconify-core/src/main/resources/fontawesome-webfont-4.1.0.icons
+#
+# The build then checks them against the font and regenerates IconValue.
 
 URL="https://fortawesome.github.io/Font-Awesome/cheatsheet/"
 PATTERN_VALUE="&#x([0-9a-zA-Z]+)"
@@ -11,10 +18,8 @@ curl -silent "$URL" | sed -En "
 		N
 		# Look for the key pattern
 		/$PATTERN_KEY/ {
-			# If found, print the formated key/value pair
-			s/.*$PATTERN_VALUE.*\n.*$PATTERN_KEY.*/\2('\\\u\1'),/
-			# Replace '-' by '_' in order to have proper enum name
-			s/-/_/g
+			# If found, print the icon name and its code point
+			s/.*$PATTERN_VALUE.*\n.*$PATTERN_KEY.*/\2 \1/
 			# Only print these results
 			p
 		}